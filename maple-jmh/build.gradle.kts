@@ -0,0 +1,42 @@
+plugins {
+    java
+}
+
+
+description = "Benchmarks for Maple"
+
+
+java {
+    toolchain{
+        languageVersion = JavaLanguageVersion.of(21)
+    }
+}
+
+
+repositories{
+    mavenCentral()
+}
+
+dependencies {
+    implementation(project(":maple"))
+    implementation("org.openjdk.jmh:jmh-core:1.37")
+    annotationProcessor("org.openjdk.jmh:jmh-generator-annprocess:1.37")
+}
+
+
+tasks{
+    // Run with './gradlew :maple-jmh:jmh', select benchmarks with '-Pjmh.include=<regex>'
+    register<JavaExec>("jmh"){
+        group = "benchmark"
+        description = "Runs the JMH benchmarks, including allocation rates"
+
+        classpath = sourceSets.main.get().runtimeClasspath
+        mainClass = "org.openjdk.jmh.Main"
+
+        val results = layout.buildDirectory.file("reports/jmh/results.json")
+        args("-prof", "gc", "-rf", "json", "-rff", results.get().asFile.path)
+        providers.gradleProperty("jmh.include").orNull?.let { args(it) }
+
+        doFirst { results.get().asFile.parentFile.mkdirs() }
+    }
+}
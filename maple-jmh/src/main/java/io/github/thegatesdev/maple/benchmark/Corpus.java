@@ -0,0 +1,162 @@
+package io.github.thegatesdev.maple.benchmark;
+
+import io.github.thegatesdev.maple.element.*;
+import io.github.thegatesdev.maple.io.*;
+
+import java.util.*;
+
+/**
+ * Generates the fixed data sets used by the benchmarks.
+ * <p>
+ * All data is generated from a constant seed, so every run measures exactly the same input.
+ *
+ * @author Timar Karels
+ */
+final class Corpus {
+
+    private static final long SEED = 0x6D61706C65L;
+
+
+    private Corpus() {
+    }
+
+
+    /**
+     * Get the keys used for dictionaries of the given size.
+     */
+    static String[] keys(int count) {
+        String[] keys = new String[count];
+        for (int i = 0; i < count; i++) keys[i] = "key_" + i;
+        return keys;
+    }
+
+    /**
+     * Get scalar values of mixed types.
+     */
+    static Element[] values(int count) {
+        Random random = new Random(SEED);
+        Element[] values = new Element[count];
+        for (int i = 0; i < count; i++) values[i] = scalar(random);
+        return values;
+    }
+
+    /**
+     * Get a dictionary of the given size, with scalar values of mixed types.
+     */
+    static DictElement dict(int count) {
+        String[] keys = keys(count);
+        Element[] values = values(count);
+        DictElement.Builder builder = DictElement.builder(count);
+        for (int i = 0; i < count; i++) builder.put(keys[i], values[i]);
+        return builder.build();
+    }
+
+    /**
+     * Get a document of nested dictionaries and lists, resembling typical configuration or API data.
+     *
+     * @param width the amount of members in each collection
+     * @param depth the amount of nested collection levels
+     */
+    static DictElement document(int width, int depth) {
+        return document(new Random(SEED), width, depth);
+    }
+
+    /**
+     * Get text of the given length and kind.
+     *
+     * @param kind either 'ascii', 'escaped' or 'unicode'
+     */
+    static String text(String kind, int length) {
+        String alphabet = switch (kind) {
+            case "ascii" -> "abcdefghijklmnopqrstuvwxyz ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+            case "escaped" -> "abcdefghij\"\\\n\t/klmnopqrstuvwxyz \u0001";
+            case "unicode" -> "abcd\u00e9\u00e8\u00f1\u00f8\u20ac\u6f22\u5b57\u304b\u306a\uD83D\uDE00";
+            default -> throw new IllegalArgumentException("Unknown text kind " + kind);
+        };
+        Random random = new Random(SEED);
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        return builder.toString();
+    }
+
+
+    private static DictElement document(Random random, int width, int depth) {
+        DictElement.Builder builder = DictElement.builder(width);
+        for (int i = 0; i < width; i++) {
+            String key = "field_" + i;
+            if (depth == 0) builder.put(key, scalar(random));
+            else if (i % 3 == 0) builder.put(key, document(random, width, depth - 1));
+            else if (i % 3 == 1) {
+                ListElement.Builder list = ListElement.builder(width);
+                for (int j = 0; j < width; j++) list.add(scalar(random));
+                builder.put(key, list.build());
+            } else builder.put(key, scalar(random));
+        }
+        return builder.build();
+    }
+
+    private static Element scalar(Random random) {
+        return switch (random.nextInt(6)) {
+            case 0 -> Element.of(random.nextInt(1000));
+            case 1 -> Element.of(random.nextLong());
+            case 2 -> Element.of(random.nextDouble() * 1000);
+            case 3 -> Element.of(random.nextBoolean());
+            case 4 -> Element.none();
+            default -> Element.of(text("ascii", 4 + random.nextInt(24)));
+        };
+    }
+
+
+    /**
+     * An output counting the characters written to it, so writing can be measured without storing the result.
+     */
+    static final class CountingOutput implements Output {
+
+        private long count;
+
+
+        long count() {
+            return count;
+        }
+
+        @Override
+        public void raw(int character) {
+            count++;
+        }
+
+        @Override
+        public void raw(String string) {
+            count += string.length();
+        }
+
+        @Override
+        public void raw(String string, int offset, int lenght) {
+            count += lenght;
+        }
+
+        @Override
+        public void raw(char[] buffer, int offset, int lenght) {
+            count += lenght;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
+
+/*
+Copyright 2024 Timar Karels
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
@@ -0,0 +1,54 @@
+package io.github.thegatesdev.maple.benchmark;
+
+import io.github.thegatesdev.maple.element.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.*;
+
+import java.util.concurrent.*;
+
+/**
+ * Measures crawling through all values of nested documents.
+ *
+ * @author Timar Karels
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CrawlBenchmark {
+
+    @Param({"2", "4"})
+    public int depth;
+
+    private DictElement document;
+
+
+    @Setup
+    public void setup() {
+        document = Corpus.document(8, depth);
+    }
+
+
+    @Benchmark
+    public void crawl(Blackhole blackhole) {
+        document.crawl(blackhole::consume);
+    }
+}
+
+/*
+Copyright 2024 Timar Karels
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
@@ -0,0 +1,107 @@
+package io.github.thegatesdev.maple.benchmark;
+
+import io.github.thegatesdev.maple.element.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Measures building dictionaries, including their hash, and looking up their values.
+ *
+ * @author Timar Karels
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DictBenchmark {
+
+    @Param({"4", "16", "256"})
+    public int size;
+
+    private String[] keys;
+    private Element[] values;
+    private DictElement dict;
+    private DictElement persistent;
+    private DictElement override;
+    private int next;
+
+
+    @Setup
+    public void setup() {
+        keys = Corpus.keys(size);
+        values = Corpus.values(size);
+        dict = Corpus.dict(size);
+        persistent = DictElement.persistentBuilder().putAll(dict).build();
+        override = DictElement.builder().put(keys[0], values[1]).build();
+    }
+
+
+    private String nextKey() {
+        String key = keys[next];
+        if (++next == keys.length) next = 0;
+        return key;
+    }
+
+
+    @Benchmark
+    public DictElement build() {
+        DictElement.Builder builder = DictElement.builder(size);
+        for (int i = 0; i < size; i++) builder.put(keys[i], values[i]);
+        return builder.build();
+    }
+
+    @Benchmark
+    public DictElement rebuild() {
+        return dict.toBuilder().put(keys[0], values[0]).build();
+    }
+
+    @Benchmark
+    public DictElement persistentRebuild() {
+        return persistent.toBuilder().put(keys[0], values[0]).build();
+    }
+
+    @Benchmark
+    public DictElement persistentMerge() {
+        return DictElement.merge(persistent, override);
+    }
+
+    @Benchmark
+    public Element get() {
+        return dict.get(nextKey());
+    }
+
+    @Benchmark
+    public Element persistentGet() {
+        return persistent.get(nextKey());
+    }
+
+    @Benchmark
+    public Optional<Element> find() {
+        return dict.find(nextKey());
+    }
+
+    @Benchmark
+    public Optional<Element> findMissing() {
+        return dict.find("missing");
+    }
+}
+
+/*
+Copyright 2024 Timar Karels
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
@@ -0,0 +1,71 @@
+package io.github.thegatesdev.maple.benchmark;
+
+import io.github.thegatesdev.maple.element.*;
+import io.github.thegatesdev.maple.io.*;
+import io.github.thegatesdev.maple.io.json.impl.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.*;
+
+/**
+ * Measures writing JSON, both whole documents and single escaped strings.
+ *
+ * @author Timar Karels
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JsonWriteBenchmark {
+
+    @Param({"ascii", "escaped", "unicode"})
+    public String kind;
+
+    @Param({"16", "1024"})
+    public int length;
+
+    private String text;
+    private DictElement document;
+    private JsonWriteContext context;
+    private Corpus.CountingOutput output;
+
+
+    @Setup
+    public void setup() {
+        text = Corpus.text(kind, length);
+        document = Corpus.document(8, 3);
+        context = new JsonWriteContext();
+        output = new Corpus.CountingOutput();
+    }
+
+
+    @Benchmark
+    public long writeEscaped() {
+        context.writeEscaped(output, text);
+        return output.count();
+    }
+
+    @Benchmark
+    public long writeDocument() {
+        document.writeTo(Destination.json(output));
+        return output.count();
+    }
+}
+
+/*
+Copyright 2024 Timar Karels
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
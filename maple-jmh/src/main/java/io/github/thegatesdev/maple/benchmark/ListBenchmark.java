@@ -0,0 +1,87 @@
+package io.github.thegatesdev.maple.benchmark;
+
+import io.github.thegatesdev.maple.element.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Measures building lists and reading their values through the different access paths.
+ *
+ * @author Timar Karels
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ListBenchmark {
+
+    @Param({"4", "16", "256"})
+    public int size;
+
+    private Element[] values;
+    private ListElement list;
+    private ListElement persistent;
+
+
+    @Setup
+    public void setup() {
+        values = Corpus.values(size);
+        list = ListElement.of(values);
+        persistent = ListElement.persistentBuilder().addAll(values).build();
+    }
+
+
+    @Benchmark
+    public ListElement build() {
+        ListElement.Builder builder = ListElement.builder(size);
+        for (Element value : values) builder.add(value);
+        return builder.build();
+    }
+
+    @Benchmark
+    public ListElement append() {
+        return list.toBuilder().add(values[0]).build();
+    }
+
+    @Benchmark
+    public ListElement persistentAppend() {
+        return persistent.toBuilder().add(values[0]).build();
+    }
+
+    @Benchmark
+    public void view(Blackhole blackhole) {
+        List<Element> view = list.view();
+        for (int i = 0; i < view.size(); i++) blackhole.consume(view.get(i));
+    }
+
+    @Benchmark
+    public Element[] toArray() {
+        return list.toArray();
+    }
+
+    @Benchmark
+    public void each(Blackhole blackhole) {
+        list.each(blackhole::consume);
+    }
+}
+
+/*
+Copyright 2024 Timar Karels
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
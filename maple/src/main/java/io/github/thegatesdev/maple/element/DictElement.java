@@ -13,7 +13,7 @@ import java.util.function.*;
  * @author Timar Karels
  * @see ElementType#DICT
  */
-public sealed interface DictElement extends Element, ElementCollection permits MemoryDictElement {
+public sealed interface DictElement extends Element, ElementCollection permits MemoryDictElement, ArrayDictElement, ShapedDictElement, LazyDictElement, HashTrieDictElement, OverlayDictElement {
 
     /**
      * Get a dictionary element containing the keys and values from the given map.
@@ -26,6 +26,20 @@ public sealed interface DictElement extends Element, ElementCollection permits M
         return MemoryDictElement.of(values);
     }
 
+    /**
+     * Get a dictionary element using the given map directly, without copying or checking it.
+     * <p>
+     * This is meant for loaders that build the entries themselves, and hand them over as a whole.
+     * The map must not contain null keys or values, and must not be modified afterwards.
+     *
+     * @param values the values for the dictionary
+     * @return the dictionary element using the values
+     * @throws NullPointerException if the given map is null
+     */
+    static DictElement wrap(Map<String, Element> values) {
+        return MemoryDictElement.wrap(values);
+    }
+
     /**
      * Get a new builder for creating dictionary elements.
      *
@@ -46,6 +60,19 @@ public sealed interface DictElement extends Element, ElementCollection permits M
         return MemoryDictElement.builder(initialCapacity);
     }
 
+    /**
+     * Get a new builder for creating persistent dictionary elements.
+     * <p>
+     * Persistent dictionaries share their structure with the builders created from them,
+     * so {@link #toBuilder()} followed by a few edits only copies the parts of the dictionary that changed.
+     * This makes them suitable for applying frequent small updates to large dictionaries.
+     *
+     * @return the new builder
+     */
+    static Builder persistentBuilder() {
+        return HashTrieDictElement.builder();
+    }
+
     /**
      * Build a new dictionary element by applying the given action to a new builder.
      *
@@ -80,6 +107,62 @@ public sealed interface DictElement extends Element, ElementCollection permits M
         return MemoryDictElement.EMPTY;
     }
 
+    /**
+     * Deeply merge the given overriding dictionary into the given base dictionary,
+     * using the values from the overriding dictionary for conflicting keys.
+     *
+     * @param base     the dictionary to merge into
+     * @param override the dictionary to merge, taking precedence over the base
+     * @return the merged dictionary
+     * @throws NullPointerException if any of the given dictionaries is null
+     * @see #merge(DictElement, DictElement, MergePolicy)
+     */
+    static DictElement merge(DictElement base, DictElement override) {
+        return merge(base, override, MergePolicy.OVERRIDE);
+    }
+
+    /**
+     * Deeply merge the given overriding dictionary into the given base dictionary.
+     * <p>
+     * Dictionaries present at the same key in both are merged in the same way,
+     * other conflicting values are resolved by the given policy.
+     * Values that are not changed by the merge are shared with the given dictionaries instead of copied,
+     * and a dictionary that is not changed at all is returned as is.
+     * Merging into a {@link #persistentBuilder() persistent} dictionary costs about the size of the overriding dictionary.
+     *
+     * @param base     the dictionary to merge into
+     * @param override the dictionary to merge
+     * @param policy   the policy resolving conflicting values
+     * @return the merged dictionary
+     * @throws NullPointerException if any of the given dictionaries or the policy is null
+     */
+    static DictElement merge(DictElement base, DictElement override, MergePolicy policy) {
+        Objects.requireNonNull(base, "given base is null");
+        Objects.requireNonNull(override, "given override is null");
+        Objects.requireNonNull(policy, "given policy is null");
+
+        return ElementMerge.merge(base, override, policy);
+    }
+
+    /**
+     * Get a dictionary element reading through the given dictionaries, without merging them.
+     * <p>
+     * Keys are looked up in the given dictionaries in order, the first dictionary containing a key provides its value.
+     * Dictionaries at the same key in multiple layers are overlaid in the same way once that key is accessed,
+     * other values hide the values below them.
+     * The entries are the same as when {@link #merge(DictElement, DictElement) merging} the layers from last to first.
+     * Operations that need all entries, like iterating, collect the entries once and keep them.
+     * <p>
+     * The layers are not copied, so the overlay is cheap to create for short-lived combinations.
+     *
+     * @param layers the dictionaries to read through, from highest to lowest precedence
+     * @return the overlaid dictionary
+     * @throws NullPointerException if the given array or any of its dictionaries is null
+     */
+    static DictElement overlay(DictElement... layers) {
+        return OverlayDictElement.of(layers);
+    }
+
 
     /**
      * Get the element at the given key.
@@ -139,8 +222,13 @@ public sealed interface DictElement extends Element, ElementCollection permits M
     }
 
 
+    @Override
+    long digest();
+
     /**
      * Indicates that the values in this dict element are the same as in the given dict element.
+     * <p>
+     * Unequal digests are compared first, so once computed, inequality is detected in constant time.
      *
      * @param other the dict element to compare
      * @return {@code true} if the contents match
@@ -167,7 +255,7 @@ public sealed interface DictElement extends Element, ElementCollection permits M
      * <p>
      * The builder is NOT guaranteed to be thread safe.
      */
-    sealed interface Builder permits MemoryDictElement.Builder {
+    sealed interface Builder permits MemoryDictElement.Builder, HashTrieDictElement.Builder {
 
         /**
          * Create a new dictionary element with the entries in this builder.
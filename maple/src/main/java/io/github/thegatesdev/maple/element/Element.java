@@ -128,6 +128,73 @@ public sealed interface Element extends Source permits DictElement,
         return NullElement.INSTANCE;
     }
 
+    /**
+     * Read an element from the data in the given source.
+     * If the given source is an element, that same element is returned.
+     *
+     * @param source the source to read from
+     * @return the element that was read
+     * @throws NullPointerException  if the given source is null
+     * @throws IllegalStateException if the source did not write exactly one complete value
+     */
+    static Element read(Source source) {
+        return ElementDestination.read(source);
+    }
+
+    /**
+     * Read an element from the data in the given source, deduplicating the values using the given interner.
+     * If the given source is an element, that same element is returned.
+     *
+     * @param source   the source to read from
+     * @param interner the interner to deduplicate the values with
+     * @return the element that was read
+     * @throws NullPointerException  if the given source or interner is null
+     * @throws IllegalStateException if the source did not write exactly one complete value
+     */
+    static Element read(Source source, ElementInterner interner) {
+        return ElementDestination.read(source, interner);
+    }
+
+    /**
+     * Get an element backed by the given UTF-8 encoded JSON data, parsing values only when they are accessed.
+     * <p>
+     * Dictionary and list elements only locate the boundaries of their direct values when they are created,
+     * and parse a value the first time it is accessed.
+     * Reading a few values from a large document is therefore much cheaper than reading all of it.
+     * Values that are never accessed are not fully validated.
+     * <p>
+     * The given array is used directly, and must not be modified afterwards.
+     *
+     * @param json the UTF-8 encoded JSON data
+     * @return the element backed by the data
+     * @throws NullPointerException if the given array is null
+     * @throws InvalidJsonException if the structure of the data is invalid
+     */
+    static Element lazyJson(byte[] json) {
+        return LazyJsonElements.of(json);
+    }
+
+    /**
+     * Get an element backed by the given Maple binary data, decoding values only when they are accessed.
+     * <p>
+     * Dictionary and list elements only locate the boundaries of their direct values when they are created,
+     * and decode a value the first time it is accessed.
+     * Nested objects and arrays written with a size hint are skipped using their stored byte length,
+     * others by walking their members.
+     * Values that are never accessed are not fully validated.
+     * <p>
+     * The given array is used directly, and must not be modified afterwards.
+     *
+     * @param data the binary data
+     * @return the element backed by the data
+     * @throws NullPointerException   if the given array is null
+     * @throws InvalidBinaryException if the structure of the data is invalid
+     * @see Destination#binary(java.io.OutputStream)
+     */
+    static Element lazyBinary(byte[] data) {
+        return LazyBinaryElements.of(data);
+    }
+
 
     /**
      * Get the element type of this element.
@@ -161,6 +228,22 @@ public sealed interface Element extends Source permits DictElement,
      */
     String stringValue();
 
+    /**
+     * Get the 64-bit content digest of this element.
+     * <p>
+     * Elements with the same contents always have the same digest, regardless of how they are stored.
+     * Different contents almost always result in a different digest,
+     * making digests suitable to quickly detect changes, or to key caches on the contents of elements.
+     * A matching digest does not guarantee matching contents, use {@code equals} or {@code contentEquals} to confirm.
+     * <p>
+     * Collections compute their digest from the digests of their values, and most implementations cache it.
+     *
+     * @return the digest of this element
+     */
+    default long digest() {
+        return ElementDigests.leaf(this);
+    }
+
 
     /**
      * Check whether this element is a dictionary element.
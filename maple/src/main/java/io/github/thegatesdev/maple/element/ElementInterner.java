@@ -0,0 +1,65 @@
+package io.github.thegatesdev.maple.element;
+
+import io.github.thegatesdev.maple.element.impl.internal.*;
+
+/**
+ * Deduplicates equal leaf elements, so repeated values share a single instance.
+ * <p>
+ * Documents often repeat the same values, such as enum-like strings and small numbers.
+ * Passing an interner to {@link Element#read(io.github.thegatesdev.maple.io.Source, ElementInterner)}
+ * replaces every value that was read before with the instance that was kept, reducing the retained memory.
+ * <p>
+ * Interned elements are referenced weakly, they are removed once no element uses them anymore.
+ * The interner is safe to share between threads.
+ *
+ * @author Timar Karels
+ */
+public sealed interface ElementInterner permits WeakElementInterner {
+
+
+    /**
+     * Create a new interner.
+     *
+     * @return the new interner
+     */
+    static ElementInterner create() {
+        return WeakElementInterner.create();
+    }
+
+
+    /**
+     * Get the interned element equal to the given element, interning the given element if none is present.
+     * Collections are not interned, and are returned as is.
+     *
+     * @param element the element to intern
+     * @return the interned element
+     * @throws NullPointerException if the given element is null
+     */
+    Element intern(Element element);
+
+    /**
+     * Get the amount of interned elements.
+     * Elements that are no longer used may still be counted until they are removed.
+     */
+    int size();
+
+    /**
+     * Remove all interned elements.
+     */
+    void clear();
+}
+/*
+Copyright 2024 Timar Karels
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
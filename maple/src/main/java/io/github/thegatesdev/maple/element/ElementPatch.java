@@ -0,0 +1,184 @@
+package io.github.thegatesdev.maple.element;
+
+import io.github.thegatesdev.maple.element.impl.internal.*;
+import io.github.thegatesdev.maple.exception.*;
+
+import java.util.*;
+
+/**
+ * A list of operations transforming one element into another, addressing the changed values by their path.
+ * <p>
+ * A path consists of {@code String} keys for values in dictionaries, and {@code Integer} indexes for values in lists.
+ * The empty path addresses the root element itself.
+ * <p>
+ * Diffing skips values that are the same instance, and collections with the same {@link Element#digest() digest}.
+ * Collections built from each other, like the persistent collections, share their unchanged values,
+ * so the cost of diffing them depends on the size of the change, not on the size of the elements.
+ * Applying a patch only rebuilds the collections on the paths to the changes, all other values are shared.
+ *
+ * @author Timar Karels
+ */
+public final class ElementPatch {
+
+    private static final ElementPatch EMPTY = new ElementPatch(List.of());
+
+    private final List<Operation> operations;
+
+
+    private ElementPatch(List<Operation> operations) {
+        this.operations = operations;
+    }
+
+    /**
+     * Get a patch with the given operations.
+     *
+     * @param operations the operations of the patch, applied in order
+     * @return the patch with the operations
+     * @throws NullPointerException if the given list or any of its operations is null
+     */
+    public static ElementPatch of(List<Operation> operations) {
+        Objects.requireNonNull(operations, "given list is null");
+
+        if (operations.isEmpty()) return EMPTY;
+        return new ElementPatch(List.copyOf(operations));
+    }
+
+    /**
+     * Get the patch transforming the given element into the other given element.
+     * <p>
+     * Dictionaries are compared by key. Lists are compared by index,
+     * values added to the end of a list are added, and values no longer present at the end of a list are removed.
+     * Other changed values are replaced.
+     *
+     * @param from the element to transform
+     * @param to   the element to transform into
+     * @return the patch transforming the elements
+     * @throws NullPointerException if any of the given elements is null
+     */
+    public static ElementPatch diff(Element from, Element to) {
+        Objects.requireNonNull(from, "given from element is null");
+        Objects.requireNonNull(to, "given to element is null");
+
+        return of(ElementDiff.diff(from, to));
+    }
+
+
+    /**
+     * Apply the operations in this patch to the given element.
+     *
+     * @param element the element to apply this patch to
+     * @return the patched element
+     * @throws NullPointerException          if the given element is null
+     * @throws ElementKeyNotPresentException if a path goes through a key that is not present
+     * @throws IndexOutOfBoundsException     if a path goes through an index that is out of bounds
+     * @throws IllegalArgumentException      if a path does not match the structure of the element
+     */
+    public Element apply(Element element) {
+        Objects.requireNonNull(element, "given element is null");
+
+        if (operations.isEmpty()) return element;
+        return ElementDiff.apply(element, operations);
+    }
+
+    /**
+     * Get the operations in this patch.
+     *
+     * @return an unmodifiable list containing the operations
+     */
+    public List<Operation> operations() {
+        return operations;
+    }
+
+    /**
+     * Check whether this patch contains no operations.
+     *
+     * @return {@code true} if applying this patch does not change anything
+     */
+    public boolean isEmpty() {
+        return operations.isEmpty();
+    }
+
+
+    @Override
+    public String toString() {
+        return "patch" + operations;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        ElementPatch that = (ElementPatch) o;
+        return operations.equals(that.operations);
+    }
+
+    @Override
+    public int hashCode() {
+        return operations.hashCode();
+    }
+
+
+    /**
+     * The type of patch operation.
+     */
+    public enum Type {
+        /**
+         * Add a value at a key that is not yet present, or at the end of a list.
+         */
+        ADD,
+        /**
+         * Remove the value at a key or index.
+         */
+        REMOVE,
+        /**
+         * Replace the value at a key or index.
+         */
+        REPLACE
+    }
+
+    /**
+     * A single operation in a patch.
+     *
+     * @param type  the type of operation
+     * @param path  the path to the value to change
+     * @param value the new value, or {@code null} for {@link Type#REMOVE}
+     */
+    public record Operation(Type type, List<Object> path, Element value) {
+
+        /**
+         * @throws NullPointerException     if the type or path is null, or the value is null for a non-removing operation
+         * @throws IllegalArgumentException if the path contains anything other than keys and indexes
+         */
+        public Operation {
+            Objects.requireNonNull(type, "given type is null");
+            Objects.requireNonNull(path, "given path is null");
+            if (type != Type.REMOVE) Objects.requireNonNull(value, "given value is null");
+            else if (value != null) throw new IllegalArgumentException("Remove operations have no value");
+
+            path = List.copyOf(path);
+            for (Object segment : path) {
+                if (!(segment instanceof String || segment instanceof Integer))
+                    throw new IllegalArgumentException("Path segment is not a key or index: " + segment);
+            }
+            if (path.isEmpty() && type != Type.REPLACE)
+                throw new IllegalArgumentException("The root element can only be replaced");
+        }
+    }
+}
+
+/*
+Copyright 2024 Timar Karels
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
@@ -12,7 +12,7 @@ import java.util.function.*;
  * @author Timar Karels
  * @see ElementType#LIST
  */
-public sealed interface ListElement extends Element, ElementCollection permits MemoryListElement {
+public sealed interface ListElement extends Element, ElementCollection permits MemoryListElement, PrimitiveListElement, LazyListElement, VectorListElement {
 
     /**
      * Get a list element containing the values from the given array.
@@ -36,6 +36,20 @@ public sealed interface ListElement extends Element, ElementCollection permits M
         return MemoryListElement.of(values);
     }
 
+    /**
+     * Get a list element using the given array directly, without copying or checking it.
+     * <p>
+     * This is meant for loaders that build the values themselves, and hand them over as a whole.
+     * The array must not contain null values, and must not be modified afterwards.
+     *
+     * @param values the values for the list
+     * @return the list element using the values
+     * @throws NullPointerException if the given array is null
+     */
+    static ListElement wrap(Element[] values) {
+        return MemoryListElement.wrap(values);
+    }
+
     /**
      * Get a new builder for creating list elements.
      *
@@ -56,6 +70,21 @@ public sealed interface ListElement extends Element, ElementCollection permits M
         return MemoryListElement.builder(initialCapacity);
     }
 
+    /**
+     * Get a new builder for creating persistent list elements.
+     * <p>
+     * Persistent lists share their structure with the builders created from them,
+     * so {@link #toBuilder()} followed by appending, setting or removing values does not copy the whole list.
+     * Adding another persistent list with {@link Builder#addAll(ListElement)} shares its structure as well,
+     * concatenating the two in logarithmic time.
+     * This makes them suitable for lists that keep growing, such as buffers of events.
+     *
+     * @return the new builder
+     */
+    static Builder persistentBuilder() {
+        return VectorListElement.builder();
+    }
+
     /**
      * Build a new list element by applying the given action to a new builder.
      *
@@ -148,8 +177,13 @@ public sealed interface ListElement extends Element, ElementCollection permits M
     }
 
 
+    @Override
+    long digest();
+
     /**
      * Indicates that the values in this list element are the same as in the given list element.
+     * <p>
+     * Unequal digests are compared first, so once computed, inequality is detected in constant time.
      *
      * @param other the list element to compare
      * @return {@code true} if the contents match
@@ -176,7 +210,7 @@ public sealed interface ListElement extends Element, ElementCollection permits M
      * <p>
      * The builder is NOT guaranteed to be thread safe.
      */
-    sealed interface Builder permits MemoryListElement.Builder {
+    sealed interface Builder permits MemoryListElement.Builder, VectorListElement.Builder {
 
         /**
          * Get a list element containing the values in this builder.
@@ -303,6 +337,17 @@ public sealed interface ListElement extends Element, ElementCollection permits M
          */
         Builder addAll(Element... elements);
 
+        /**
+         * Replace the element at the given index in this list.
+         *
+         * @param index   the index for the element to replace
+         * @param element the element to set
+         * @return this builder
+         * @throws IndexOutOfBoundsException if the index is out of bounds
+         * @throws NullPointerException      if the given element is null
+         */
+        Builder set(int index, Element element);
+
         /**
          * Remove the element at the given index from this list.
          *
@@ -0,0 +1,63 @@
+package io.github.thegatesdev.maple.element;
+
+/**
+ * Decides the value of a key present in both dictionaries of a {@link DictElement#merge(DictElement, DictElement, MergePolicy) merge}.
+ * <p>
+ * The policy is only used for conflicting values that are not both dictionaries, those are always merged deeply.
+ *
+ * @author Timar Karels
+ */
+@FunctionalInterface
+public interface MergePolicy {
+
+    /**
+     * Use the value from the overriding dictionary.
+     */
+    MergePolicy OVERRIDE = (key, base, override) -> override;
+
+    /**
+     * Keep the value from the base dictionary.
+     */
+    MergePolicy KEEP = (key, base, override) -> base;
+
+    /**
+     * Append the values of the overriding list to the base list if both values are lists,
+     * otherwise use the value from the overriding dictionary.
+     */
+    MergePolicy CONCATENATE_LISTS = (key, base, override) -> {
+        if (base instanceof ListElement baseList && override instanceof ListElement overrideList) {
+            if (overrideList.isEmpty()) return baseList;
+            if (baseList.isEmpty()) return overrideList;
+            return baseList.toBuilder().addAll(overrideList).build();
+        }
+        return override;
+    };
+
+
+    /**
+     * Resolve the conflict between two values at the same key.
+     * Returning the base instance keeps the base dictionary unchanged at this key.
+     *
+     * @param key      the key of the conflicting values
+     * @param base     the value in the base dictionary
+     * @param override the value in the overriding dictionary
+     * @return the value to use in the merged dictionary
+     */
+    Element resolve(String key, Element base, Element override);
+}
+
+/*
+Copyright 2024 Timar Karels
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
@@ -25,11 +25,24 @@ public record IntElement(int value) implements Element, NumberElement {
      */
     public static final IntElement ZERO = new IntElement(0);
 
+    private static final int CACHE_LOW = -128;
+    private static final int CACHE_HIGH = 1023;
+    // Small counters and indexes are very common, like the boxed integer cache
+    private static final IntElement[] CACHE = new IntElement[CACHE_HIGH - CACHE_LOW + 1];
+
+    static {
+        for (int i = 0; i < CACHE.length; i++) CACHE[i] = new IntElement(i + CACHE_LOW);
+        CACHE[-CACHE_LOW] = ZERO;
+    }
+
     /**
+     * Get an element representing the given integer value.
+     * Values between -128 and 1023 are cached and re-used instead of creating new instances.
+     *
      * @see Element#of(int)
      */
     public static Element of(int value) {
-        if (value == 0) return ZERO;
+        if (value >= CACHE_LOW && value <= CACHE_HIGH) return CACHE[value - CACHE_LOW];
         return new IntElement(value);
     }
 
@@ -0,0 +1,248 @@
+package io.github.thegatesdev.maple.element.impl.internal;
+
+import io.github.thegatesdev.maple.annotation.internal.*;
+import io.github.thegatesdev.maple.element.*;
+import io.github.thegatesdev.maple.exception.*;
+import io.github.thegatesdev.maple.io.*;
+
+import java.util.*;
+import java.util.function.*;
+import java.util.stream.*;
+
+/**
+ * A dictionary element for a few entries, storing its keys and values interleaved in a single array.
+ * Lookups scan the keys, which is faster than hashing for dictionaries this small.
+ *
+ * @author Timar Karels
+ */
+@ValueClassCandidate
+public final class ArrayDictElement implements DictElement {
+
+    /**
+     * The maximum amount of entries stored in an array dictionary.
+     */
+    public static final int MAX_SIZE = 8;
+
+    private final Object[] entries;
+    private int cachedHash;
+    private volatile long cachedDigest;
+
+
+    private ArrayDictElement(Object[] entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * Create an array dictionary from the given entries, which should not hold more than {@link #MAX_SIZE} entries.
+     */
+    static ArrayDictElement of(Map<String, Element> values) {
+        Object[] entries = new Object[values.size() * 2];
+        int i = 0;
+        for (var entry : values.entrySet()) {
+            entries[i++] = entry.getKey();
+            entries[i++] = entry.getValue();
+        }
+        return new ArrayDictElement(entries);
+    }
+
+
+    private Element lookup(String key) {
+        Object[] entries = this.entries;
+        for (int i = 0; i < entries.length; i += 2) {
+            if (key.equals(entries[i])) return (Element) entries[i + 1];
+        }
+        return null;
+    }
+
+
+    @Override
+    public Element get(String key) {
+        Objects.requireNonNull(key, "given key is null");
+
+        Element value = lookup(key);
+        if (value == null) throw new ElementKeyNotPresentException(key);
+        return value;
+    }
+
+    @Override
+    public Optional<Element> find(String key) {
+        Objects.requireNonNull(key, "given key is null");
+
+        return Optional.ofNullable(lookup(key));
+    }
+
+    @Override
+    public void each(BiConsumer<String, Element> action) {
+        Objects.requireNonNull(action, "given action is null");
+
+        for (int i = 0; i < entries.length; i += 2) action.accept((String) entries[i], (Element) entries[i + 1]);
+    }
+
+    @Override
+    public Map<String, Element> view() {
+        return new View();
+    }
+
+    @Override
+    public DictElement.Builder toBuilder() {
+        DictElement.Builder builder = MemoryDictElement.builder(entries.length / 2);
+        each(builder::put);
+        return builder;
+    }
+
+
+    @Override
+    public void each(Consumer<Element> action) {
+        Objects.requireNonNull(action, "given action is null");
+
+        for (int i = 1; i < entries.length; i += 2) action.accept((Element) entries[i]);
+    }
+
+    @Override
+    public void crawl(Consumer<Element> action) {
+        Objects.requireNonNull(action, "given action is null");
+
+        for (int i = 1; i < entries.length; i += 2) {
+            Element element = (Element) entries[i];
+            if (element instanceof ElementCollection collection) {
+                collection.crawl(action);
+            }
+            action.accept(element);
+        }
+    }
+
+    @Override
+    public Stream<Element> stream() {
+        return IntStream.range(0, entries.length / 2).mapToObj(i -> (Element) entries[2 * i + 1]);
+    }
+
+    @Override
+    public ListElement values() {
+        // Not cached, copying a few values is cheaper than keeping a reference around in every dictionary
+        Element[] values = new Element[entries.length / 2];
+        for (int i = 0; i < values.length; i++) values[i] = (Element) entries[2 * i + 1];
+        return new MemoryListElement(values);
+    }
+
+    @Override
+    public int count() {
+        return entries.length / 2;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return entries.length == 0;
+    }
+
+
+    @Override
+    public void writeTo(Destination destination) {
+        destination.openObject(entries.length / 2);
+        for (int i = 0; i < entries.length; i += 2) {
+            destination.name((String) entries[i]);
+            destination.value((Element) entries[i + 1]);
+        }
+        destination.closeObject();
+    }
+
+    @Override
+    public long digest() {
+        long result = cachedDigest;
+        if (result == 0) cachedDigest = result = ElementDigests.dict(this);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "dict{" + entries.length / 2 + "}";
+    }
+
+    @Override
+    public int hashCode() {
+        int result = cachedHash;
+        if (result == 0) {
+            // Same as the hash of a map, racy like the hash of a string
+            for (int i = 0; i < entries.length; i += 2) result += entries[i].hashCode() ^ entries[i + 1].hashCode();
+            cachedHash = result;
+        }
+        return result;
+    }
+
+
+    @Override
+    public boolean contentEquals(DictElement other) {
+        if (equals(other)) return true;
+        return ContentEquality.dicts(this, other);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        return ContentEquality.memoryDicts(this, o);
+    }
+
+
+    private final class View extends AbstractMap<String, Element> {
+
+        @Override
+        public Element get(Object key) {
+            return key instanceof String string ? lookup(string) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public int size() {
+            return entries.length / 2;
+        }
+
+        @Override
+        public Set<Entry<String, Element>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, Element>> iterator() {
+                    return new Iterator<>() {
+                        private int next;
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < entries.length;
+                        }
+
+                        @Override
+                        public Entry<String, Element> next() {
+                            if (!hasNext()) throw new NoSuchElementException();
+                            var entry = Map.entry((String) entries[next], (Element) entries[next + 1]);
+                            next += 2;
+                            return entry;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return entries.length / 2;
+                }
+            };
+        }
+    }
+}
+
+/*
+Copyright 2024 Timar Karels
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
@@ -0,0 +1,96 @@
+package io.github.thegatesdev.maple.element.impl.internal;
+
+import io.github.thegatesdev.maple.element.*;
+
+import java.util.*;
+
+/**
+ * Compares the contents of elements, regardless of the implementation of the collections involved.
+ * Only used internally to implement {@code contentEquals}.
+ *
+ * @author Timar Karels
+ */
+public final class ContentEquality {
+
+    private ContentEquality() {
+    }
+
+
+    /**
+     * Check whether the given elements have the same contents.
+     * Collections are compared by content, other elements using {@code equals}.
+     */
+    public static boolean elements(Element a, Element b) {
+        if (a.equals(b)) return true;
+        if (a instanceof DictElement dict && b instanceof DictElement other) return dict.contentEquals(other);
+        if (a instanceof ListElement list && b instanceof ListElement other) return list.contentEquals(other);
+        return false;
+    }
+
+    /**
+     * Check whether the given object is a dictionary stored in memory, with entries equal to the given dictionary.
+     * Dictionaries stored in memory are interchangeable, regardless of how they store or read their entries.
+     * Every dictionary implementation is stored in memory, including the overlays and the ones backed by JSON data.
+     */
+    public static boolean memoryDicts(DictElement a, Object b) {
+        if (!(b instanceof DictElement other)) return false;
+
+        if (a.count() != other.count() || a.hashCode() != other.hashCode() || a.digest() != other.digest()) return false;
+        Map<String, Element> otherEntries = other.view();
+        for (var entry : a.view().entrySet()) {
+            if (!entry.getValue().equals(otherEntries.get(entry.getKey()))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Check whether the given object is a list stored in memory, with values equal to the given list.
+     * Lists stored in memory are interchangeable, regardless of how they store or read their values.
+     * Every list implementation is stored in memory, including the ones backed by JSON data.
+     */
+    public static boolean memoryLists(ListElement a, Object b) {
+        if (!(b instanceof ListElement other)) return false;
+
+        int count = a.count();
+        if (count != other.count() || a.hashCode() != other.hashCode() || a.digest() != other.digest()) return false;
+        for (int i = 0; i < count; i++) {
+            if (!a.get(i).equals(other.get(i))) return false;
+        }
+        return true;
+    }
+
+    public static boolean dicts(DictElement a, DictElement b) {
+        if (a.count() != b.count() || a.digest() != b.digest()) return false;
+        Map<String, Element> other = b.view();
+        for (var entry : a.view().entrySet()) {
+            Element otherValue = other.get(entry.getKey());
+            if (otherValue == null || !elements(entry.getValue(), otherValue)) return false;
+        }
+        return true;
+    }
+
+    public static boolean lists(ListElement a, ListElement b) {
+        int count = a.count();
+        if (count != b.count() || a.digest() != b.digest()) return false;
+        for (int i = 0; i < count; i++) {
+            if (!elements(a.get(i), b.get(i))) return false;
+        }
+        return true;
+    }
+}
+
+/*
+Copyright 2024 Timar Karels
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
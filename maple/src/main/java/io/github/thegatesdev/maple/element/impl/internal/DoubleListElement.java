@@ -0,0 +1,69 @@
+package io.github.thegatesdev.maple.element.impl.internal;
+
+import io.github.thegatesdev.maple.annotation.internal.*;
+import io.github.thegatesdev.maple.element.*;
+import io.github.thegatesdev.maple.element.impl.*;
+import io.github.thegatesdev.maple.io.*;
+
+import java.util.*;
+
+/**
+ * A list element storing double numbers in a {@code double} array.
+ *
+ * @author Timar Karels
+ */
+@ValueClassCandidate
+public final class DoubleListElement extends PrimitiveListElement {
+
+    private final double[] values;
+
+
+    DoubleListElement(double[] values) {
+        this.values = values;
+    }
+
+
+    @Override
+    public Element get(int index) {
+        return DoubleElement.of(values[index]);
+    }
+
+    @Override
+    public int count() {
+        return values.length;
+    }
+
+
+    @Override
+    public void writeTo(Destination destination) {
+        destination.openArray(values.length);
+        for (double value : values) {
+            // Zero is stored as an integer element
+            if (value == 0) destination.value(0);
+            else destination.value(value);
+        }
+        destination.closeArray();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof DoubleListElement that) return Arrays.equals(values, that.values);
+        return super.equals(o);
+    }
+}
+
+/*
+Copyright 2024 Timar Karels
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
@@ -0,0 +1,295 @@
+package io.github.thegatesdev.maple.element.impl.internal;
+
+import io.github.thegatesdev.maple.element.*;
+import io.github.thegatesdev.maple.io.*;
+
+import java.math.*;
+import java.util.*;
+
+/**
+ * A destination building elements from the written data.
+ * <p>
+ * The open collections are kept on an explicit stack, so deeply nested data does not recurse.
+ * The arrays and maps collected for each scope are handed to the resulting elements without copying.
+ * Objects share their keys through {@link Shape shapes}, only falling back to a map for duplicate keys.
+ *
+ * @author Timar Karels
+ */
+public final class ElementDestination implements Destination {
+
+    private static final int DEFAULT_LIST_CAPACITY = 8;
+    // Size hints may come from untrusted input, larger lists grow as their values arrive
+    private static final int MAX_LIST_PRESIZE = 4096;
+
+    private final ElementInterner interner;
+    private final Shape.Allowance shapes = new Shape.Allowance();
+    private Frame[] frames = new Frame[8];
+    private int depth;
+    private Element result;
+
+
+    private ElementDestination(ElementInterner interner) {
+        this.interner = interner;
+    }
+
+    public static ElementDestination create() {
+        return new ElementDestination(null);
+    }
+
+    public static ElementDestination create(ElementInterner interner) {
+        Objects.requireNonNull(interner, "given interner is null");
+
+        return new ElementDestination(interner);
+    }
+
+    public static Element read(Source source) {
+        Objects.requireNonNull(source, "given source is null");
+
+        if (source instanceof Element element) return element;
+        ElementDestination destination = new ElementDestination(null);
+        source.writeTo(destination);
+        return destination.result();
+    }
+
+    public static Element read(Source source, ElementInterner interner) {
+        Objects.requireNonNull(source, "given source is null");
+        Objects.requireNonNull(interner, "given interner is null");
+
+        if (source instanceof Element element) return element;
+        ElementDestination destination = new ElementDestination(interner);
+        source.writeTo(destination);
+        return destination.result();
+    }
+
+
+    /**
+     * Get the element that was written to this destination.
+     *
+     * @return the written element
+     * @throws IllegalStateException if no complete element was written
+     */
+    public Element result() {
+        if (depth != 0) throw new IllegalStateException("Not all scopes were closed");
+        if (result == null) throw new IllegalStateException("No value was written");
+        return result;
+    }
+
+
+    private void add(Element element) {
+        if (depth == 0) {
+            if (result != null) throw new IllegalStateException("A root value was already written");
+            result = element;
+            return;
+        }
+        frames[depth - 1].add(element, shapes);
+    }
+
+    private void addValue(Element element) {
+        add(interner == null ? element : interner.intern(element));
+    }
+
+    private Frame push(boolean object) {
+        if (depth == 0 && result != null) throw new IllegalStateException("A root value was already written");
+        if (depth > 0) frames[depth - 1].checkValue();
+        if (depth == frames.length) frames = Arrays.copyOf(frames, depth * 2);
+
+        Frame frame = frames[depth];
+        if (frame == null) frame = frames[depth] = new Frame();
+        frame.object = object;
+        frame.name = null;
+        depth++;
+        return frame;
+    }
+
+    private Frame pop(boolean object) {
+        if (depth == 0 || frames[depth - 1].object != object)
+            throw new IllegalStateException("Not in " + (object ? "an object" : "an array") + " scope");
+        return frames[--depth];
+    }
+
+
+    @Override
+    public void openObject() {
+        openObject(-1);
+    }
+
+    @Override
+    public void openObject(int sizeHint) {
+        Frame frame = push(true);
+        frame.shape = Shape.ROOT;
+        frame.values = new Element[sizeHint < 0 ? DEFAULT_LIST_CAPACITY : Math.min(sizeHint, Shape.MAX_KEYS)];
+        frame.size = 0;
+    }
+
+    @Override
+    public void closeObject() {
+        Frame frame = pop(true);
+        if (frame.name != null) throw new IllegalStateException("Expected value");
+
+        if (frame.shape == null) {
+            Map<String, Element> entries = frame.entries;
+            frame.entries = null;
+            add(MemoryDictElement.wrap(entries));
+            return;
+        }
+        Shape shape = frame.shape;
+        Element[] values = frame.values;
+        int size = frame.size;
+        frame.shape = null;
+        frame.values = null;
+        if (size == 0) add(MemoryDictElement.EMPTY);
+        else add(new ShapedDictElement(shape, values)); // The shape knows the size, the array is not trimmed
+    }
+
+    @Override
+    public void openArray() {
+        openArray(-1);
+    }
+
+    @Override
+    public void openArray(int sizeHint) {
+        Frame frame = push(false);
+        frame.values = new Element[sizeHint < 0 ? DEFAULT_LIST_CAPACITY : Math.min(sizeHint, MAX_LIST_PRESIZE)];
+        frame.size = 0;
+    }
+
+    @Override
+    public void closeArray() {
+        Frame frame = pop(false);
+
+        Element[] values = frame.values;
+        int size = frame.size;
+        frame.values = null;
+        add(MemoryListElement.wrap(values, size)); // Not trimmed, the list only uses the filled slots
+    }
+
+
+    @Override
+    public void name(String name) {
+        Objects.requireNonNull(name, "given name is null");
+        if (depth == 0 || !frames[depth - 1].object) throw new IllegalStateException("Not in an object scope");
+
+        Frame frame = frames[depth - 1];
+        if (frame.name != null) throw new IllegalStateException("Expected value");
+        frame.name = name;
+    }
+
+    @Override
+    public void value(String value) {
+        addValue(Element.of(value));
+    }
+
+    @Override
+    public void value(boolean value) {
+        addValue(Element.of(value));
+    }
+
+    @Override
+    public void value(int value) {
+        addValue(Element.of(value));
+    }
+
+    @Override
+    public void value(long value) {
+        addValue(Element.of(value));
+    }
+
+    @Override
+    public void value(float value) {
+        addValue(Element.of(value));
+    }
+
+    @Override
+    public void value(double value) {
+        addValue(Element.of(value));
+    }
+
+    @Override
+    public void value(BigInteger value) {
+        addValue(Element.of(value));
+    }
+
+    @Override
+    public void value(BigDecimal value) {
+        addValue(Element.of(value));
+    }
+
+    @Override
+    public void valueNull() {
+        add(Element.none());
+    }
+
+    @Override
+    public void value(Source source) {
+        // Elements are immutable, so they can be shared instead of rebuilt
+        if (source instanceof Element element) add(element);
+        else source.writeTo(this);
+    }
+
+
+    private static final class Frame {
+
+        private boolean object;
+
+        private Element[] values;
+        private int size;
+
+        private Shape shape;
+        private Map<String, Element> entries;
+        private String name;
+
+
+        private void checkValue() {
+            if (object && name == null) throw new IllegalStateException("Expected name before value");
+        }
+
+        private void add(Element element, Shape.Allowance shapes) {
+            if (!object) {
+                append(element);
+                return;
+            }
+            checkValue();
+            if (shape != null) {
+                Shape next = shape.withKey(name, shapes);
+                if (next != null) {
+                    shape = next;
+                    append(element);
+                    name = null;
+                    return;
+                }
+                // Duplicate key, too many keys, or no new shapes allowed
+                moveToEntries();
+            }
+            entries.put(name, element);
+            name = null;
+        }
+
+        private void append(Element element) {
+            if (size == values.length) values = Arrays.copyOf(values, Math.max(DEFAULT_LIST_CAPACITY, size * 2));
+            values[size++] = element;
+        }
+
+        private void moveToEntries() {
+            entries = HashMap.newHashMap(size + 1);
+            for (int slot = 0; slot < size; slot++) entries.put(shape.key(slot), values[slot]);
+            shape = null;
+            values = null;
+        }
+    }
+}
+
+/*
+Copyright 2024 Timar Karels
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
@@ -0,0 +1,201 @@
+package io.github.thegatesdev.maple.element.impl.internal;
+
+import io.github.thegatesdev.maple.element.*;
+import io.github.thegatesdev.maple.element.ElementPatch.*;
+import io.github.thegatesdev.maple.exception.*;
+
+import java.util.*;
+
+/**
+ * Computes and applies the operations of an element patch.
+ * Only used internally to implement {@link ElementPatch}.
+ *
+ * @author Timar Karels
+ */
+public final class ElementDiff {
+
+    private ElementDiff() {
+    }
+
+
+    /**
+     * Compute the operations transforming the given element into the other given element.
+     */
+    public static List<Operation> diff(Element from, Element to) {
+        List<Operation> operations = new ArrayList<>();
+        diff(new ArrayList<>(), from, to, operations);
+        return operations;
+    }
+
+    private static void diff(List<Object> path, Element from, Element to, List<Operation> operations) {
+        if (from == to) return;
+        if (from instanceof HashTrieDictElement fromTrie && to instanceof HashTrieDictElement toTrie) {
+            // The trie skips the nodes it shares, which is cheaper than computing the digest of a new version
+            HashTrieDictElement.diff(fromTrie, toTrie, (key, fromValue, toValue) -> entry(path, key, fromValue, toValue, operations));
+        } else if (from instanceof DictElement fromDict && to instanceof DictElement toDict) {
+            if (fromDict.digest() != toDict.digest()) diffDicts(path, fromDict, toDict, operations);
+        } else if (from instanceof ListElement fromList && to instanceof ListElement toList) {
+            if (fromList.digest() != toList.digest()) diffLists(path, fromList, toList, operations);
+        } else if (!from.equals(to)) {
+            operations.add(new Operation(Type.REPLACE, path, to));
+        }
+    }
+
+    private static void diffDicts(List<Object> path, DictElement from, DictElement to, List<Operation> operations) {
+        from.each((key, fromValue) -> entry(path, key, fromValue, to.find(key).orElse(null), operations));
+        to.each((key, toValue) -> {
+            if (from.find(key).isEmpty()) entry(path, key, null, toValue, operations);
+        });
+    }
+
+    private static void entry(List<Object> path, String key, Element from, Element to, List<Operation> operations) {
+        path.add(key);
+        if (from == null) operations.add(new Operation(Type.ADD, path, to));
+        else if (to == null) operations.add(new Operation(Type.REMOVE, path, null));
+        else diff(path, from, to, operations);
+        path.remove(path.size() - 1);
+    }
+
+    private static void diffLists(List<Object> path, ListElement from, ListElement to, List<Operation> operations) {
+        int fromCount = from.count(), toCount = to.count(), shared = Math.min(fromCount, toCount);
+        for (int i = 0; i < shared; i++) {
+            path.add(i);
+            diff(path, from.get(i), to.get(i), operations);
+            path.remove(path.size() - 1);
+        }
+        for (int i = shared; i < toCount; i++) {
+            path.add(i);
+            operations.add(new Operation(Type.ADD, path, to.get(i)));
+            path.remove(path.size() - 1);
+        }
+        // Remove from the end, so the indexes of the other removed values do not shift
+        for (int i = fromCount - 1; i >= shared; i--) {
+            path.add(i);
+            operations.add(new Operation(Type.REMOVE, path, null));
+            path.remove(path.size() - 1);
+        }
+    }
+
+
+    /**
+     * Apply the given operations to the given element, rebuilding every changed collection once.
+     */
+    public static Element apply(Element element, List<Operation> operations) {
+        Element result = element;
+        Group root = new Group();
+        for (Operation operation : operations) {
+            if (operation.path().isEmpty()) {
+                // Replacing the root discards the operations before it
+                result = operation.value();
+                root = new Group();
+            } else {
+                root.add(operation, 0);
+            }
+        }
+        if (root.steps.isEmpty()) return result;
+        return apply(result, root);
+    }
+
+    private static Element apply(Element element, Group group) {
+        if (element instanceof DictElement dict) return apply(dict, group);
+        if (element instanceof ListElement list) return apply(list, group);
+        throw new IllegalArgumentException("Cannot change values inside an element that is not a collection: " + element);
+    }
+
+    private static DictElement apply(DictElement dict, Group group) {
+        DictElement.Builder builder = dict.toBuilder();
+        for (Step step : group.steps) {
+            if (!(step.segment instanceof String key))
+                throw new IllegalArgumentException("Cannot access a dictionary with index " + step.segment);
+            if (step.operation == null) {
+                Element value = builder.view().get(key);
+                if (value == null) throw new ElementKeyNotPresentException(key);
+                builder.put(key, apply(value, step.group));
+            } else if (step.operation.type() == Type.REMOVE) {
+                builder.remove(key);
+            } else {
+                builder.put(key, step.operation.value());
+            }
+        }
+        return builder.build();
+    }
+
+    private static ListElement apply(ListElement list, Group group) {
+        ListElement.Builder builder = list.toBuilder();
+        int count = list.count();
+        for (Step step : group.steps) {
+            if (!(step.segment instanceof Integer index))
+                throw new IllegalArgumentException("Cannot access a list with key " + step.segment);
+            if (step.operation == null) {
+                builder.set(index, apply(builder.view().get(index), step.group));
+                continue;
+            }
+            switch (step.operation.type()) {
+                case ADD -> {
+                    if (index != count)
+                        throw new IndexOutOfBoundsException("Values can only be added at the end of a list, index " + index + " for length " + count);
+                    builder.add(step.operation.value());
+                    count++;
+                }
+                case REPLACE -> builder.set(index, step.operation.value());
+                case REMOVE -> {
+                    builder.remove((int) index);
+                    count--;
+                }
+            }
+        }
+        return builder.build();
+    }
+
+
+    /**
+     * The operations on the values of a single collection, in order.
+     * Operations on values nested in the same value are grouped, so that value is only rebuilt once.
+     */
+    private static final class Group {
+
+        private final List<Step> steps = new ArrayList<>();
+        private final Map<Object, Group> open = new HashMap<>();
+
+
+        private void add(Operation operation, int depth) {
+            List<Object> path = operation.path();
+            Object segment = path.get(depth);
+            if (depth == path.size() - 1) {
+                steps.add(new Step(segment, operation, null));
+                // Later operations have to see the result of this one, and adding or removing shifts the indexes of a list
+                open.clear();
+                return;
+            }
+            Group group = open.get(segment);
+            if (group == null) {
+                group = new Group();
+                open.put(segment, group);
+                steps.add(new Step(segment, null, group));
+            }
+            group.add(operation, depth + 1);
+        }
+    }
+
+    /**
+     * A single operation on the value at a segment, or a group of operations on values nested in it.
+     */
+    private record Step(Object segment, Operation operation, Group group) {
+    }
+}
+
+/*
+Copyright 2024 Timar Karels
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
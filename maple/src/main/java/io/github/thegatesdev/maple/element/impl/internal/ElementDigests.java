@@ -0,0 +1,121 @@
+package io.github.thegatesdev.maple.element.impl.internal;
+
+import io.github.thegatesdev.maple.element.*;
+import io.github.thegatesdev.maple.element.impl.*;
+
+import java.math.*;
+
+/**
+ * Computes the 64-bit content digests of elements.
+ * <p>
+ * The digest of a collection is built from the digests of its values, like a Merkle tree,
+ * so collections that cache their digest only need to compute it once.
+ * Elements with the same contents have the same digest, regardless of how they are stored.
+ * Only used internally to implement {@code digest}.
+ *
+ * @author Timar Karels
+ */
+public final class ElementDigests {
+
+    private static final long STRING = 0x8B3A1C5D2E4F6071L;
+    private static final long INT = 0x1F2E3D4C5B6A7988L;
+    private static final long LONG = 0x2A4C6E8091B3D5F7L;
+    private static final long FLOAT = 0x3C5E7092B4D6F819L;
+    private static final long DOUBLE = 0x4D6F8193B5D7F92BL;
+    private static final long BIG_INTEGER = 0x5E7092A4C6E8013DL;
+    private static final long BIG_DECIMAL = 0x6F8193B5D7F9124FL;
+    private static final long TRUE = 0x7092A4C6E801235FL;
+    private static final long FALSE = 0x8193B5D7F9123461L;
+    private static final long NULL = 0x92A4C6E801234573L;
+    private static final long DICT = 0xA3B5D7F912345685L;
+    private static final long LIST = 0xB4C6E80123456797L;
+
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+    private ElementDigests() {
+    }
+
+
+    /**
+     * Spread the bits of the given value, using the finalizer of SplitMix64.
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+
+    /**
+     * Finish the digest of a collection.
+     * Never returns zero, so implementations can use zero to mark a digest that is not yet computed.
+     */
+    private static long finish(long value) {
+        long result = mix(value);
+        return result == 0 ? GOLDEN : result;
+    }
+
+    private static long string(String value) {
+        long result = STRING;
+        for (int i = 0, length = value.length(); i < length; i++) result = (result ^ value.charAt(i)) * GOLDEN;
+        return mix(result + value.length());
+    }
+
+    private static long bytes(long seed, byte[] value) {
+        long result = seed;
+        for (byte b : value) result = (result ^ (b & 0xFF)) * GOLDEN;
+        return mix(result + value.length);
+    }
+
+
+    /**
+     * Compute the digest of the given element that is not a collection.
+     */
+    public static long leaf(Element element) {
+        return switch (element) {
+            case StringElement(String value) -> string(value);
+            case IntElement(int value) -> mix(INT + value);
+            case LongElement(long value) -> mix(LONG + value);
+            case FloatElement(float value) -> mix(FLOAT + Float.floatToIntBits(value));
+            case DoubleElement(double value) -> mix(DOUBLE + Double.doubleToLongBits(value));
+            case BigIntegerElement(BigInteger value) -> bytes(BIG_INTEGER, value.toByteArray());
+            case BigDecimalElement(BigDecimal value) -> mix(bytes(BIG_DECIMAL, value.unscaledValue().toByteArray()) + value.scale());
+            case BoolElement bool -> bool == BoolElement.TRUE ? TRUE : FALSE;
+            case NullElement ignored -> NULL;
+            default -> throw new IllegalArgumentException("Not a leaf element: " + element);
+        };
+    }
+
+    /**
+     * Compute the digest of the given dictionary, which does not depend on the order of its entries.
+     */
+    public static long dict(DictElement dict) {
+        long[] sum = {0};
+        dict.each((key, value) -> sum[0] += mix(string(key) * GOLDEN + value.digest()));
+        return finish(DICT + sum[0] * GOLDEN + dict.count());
+    }
+
+    /**
+     * Compute the digest of the given list, which depends on the order of its values.
+     */
+    public static long list(ListElement list) {
+        long[] result = {LIST};
+        list.each(value -> result[0] = result[0] * GOLDEN + value.digest());
+        return finish(result[0] + list.count());
+    }
+}
+
+/*
+Copyright 2024 Timar Karels
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
@@ -0,0 +1,59 @@
+package io.github.thegatesdev.maple.element.impl.internal;
+
+import io.github.thegatesdev.maple.element.*;
+
+import java.util.*;
+
+/**
+ * Deeply merges dictionary elements, sharing every value that is not changed by the merge.
+ * Only used internally to implement {@link DictElement#merge(DictElement, DictElement, MergePolicy)}.
+ *
+ * @author Timar Karels
+ */
+public final class ElementMerge {
+
+    private ElementMerge() {
+    }
+
+
+    /**
+     * Merge the overriding dictionary into the base dictionary.
+     * Only the entries of the overriding dictionary are visited, and the base is only rebuilt if one of them changes it.
+     */
+    public static DictElement merge(DictElement base, DictElement override, MergePolicy policy) {
+        if (base == override || override.isEmpty()) return base;
+        if (base.isEmpty()) return override;
+
+        DictElement.Builder[] builder = {null};
+        override.each((key, value) -> {
+            Element current = base.find(key).orElse(null);
+            Element merged;
+            if (current == null) merged = value;
+            else if (current instanceof DictElement currentDict && value instanceof DictElement valueDict)
+                merged = merge(currentDict, valueDict, policy);
+            else merged = Objects.requireNonNull(policy.resolve(key, current, value), "merge policy returned null");
+
+            if (merged != current) {
+                if (builder[0] == null) builder[0] = base.toBuilder();
+                builder[0].put(key, merged);
+            }
+        });
+        return builder[0] == null ? base : builder[0].build();
+    }
+}
+
+/*
+Copyright 2024 Timar Karels
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
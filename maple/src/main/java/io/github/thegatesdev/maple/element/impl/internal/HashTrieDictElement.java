@@ -0,0 +1,835 @@
+package io.github.thegatesdev.maple.element.impl.internal;
+
+import io.github.thegatesdev.maple.element.*;
+import io.github.thegatesdev.maple.exception.*;
+import io.github.thegatesdev.maple.io.*;
+
+import java.util.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+import java.util.stream.*;
+
+/**
+ * A dictionary element backed by a persistent hash array mapped trie.
+ * <p>
+ * Builders created from this dictionary share its nodes, and only copy the nodes on the path to an edited key.
+ * Nodes created by a builder are owned by it and edited in place, until the builder builds an element.
+ *
+ * @author Timar Karels
+ */
+public final class HashTrieDictElement implements DictElement {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final int HASH_BITS = 32;
+    // Seven bitmap levels plus one collision level
+    private static final int MAX_DEPTH = 8;
+
+    private static final BitmapNode EMPTY_NODE = new BitmapNode(null, 0, 0, new Object[0]);
+    // Not the shared empty dictionary, so that builders created from it are persistent as well
+    private static final HashTrieDictElement EMPTY = new HashTrieDictElement(EMPTY_NODE, 0, 0);
+
+    private final Node root;
+    private final int count;
+    private int cachedHash;
+    private volatile long cachedDigest;
+    private final AtomicReference<ListElement> valuesReference = new AtomicReference<>();
+
+
+    private HashTrieDictElement(Node root, int count, int hash) {
+        this.root = root;
+        this.count = count;
+        this.cachedHash = hash;
+    }
+
+    public static DictElement.Builder builder() {
+        return new Builder(EMPTY_NODE, 0, 0);
+    }
+
+
+    private static int bit(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    private static int index(int bitmap, int bit) {
+        return Integer.bitCount(bitmap & (bit - 1));
+    }
+
+    private static int entryHash(String key, Element value) {
+        return key.hashCode() ^ value.hashCode();
+    }
+
+    private static Element lookup(Node root, String key) {
+        int hash = key.hashCode();
+        Node node = root;
+        for (int shift = 0; node instanceof BitmapNode bitmapNode; shift += BITS) {
+            int bit = bit(hash, shift);
+            if ((bitmapNode.dataMap & bit) != 0) {
+                int i = 2 * index(bitmapNode.dataMap, bit);
+                Object[] content = bitmapNode.content;
+                return key.equals(content[i]) ? (Element) content[i + 1] : null;
+            }
+            if ((bitmapNode.nodeMap & bit) == 0) return null;
+            node = bitmapNode.child(bit);
+        }
+        return ((CollisionNode) node).find(key);
+    }
+
+    private static void each(Node node, BiConsumer<String, Element> action) {
+        for (int i = 0, size = node.dataCount(); i < size; i++) action.accept(node.key(i), node.value(i));
+        for (int i = 0, size = node.nodeCount(); i < size; i++) each(node.node(i), action);
+    }
+
+    /**
+     * Report the entries with a different value in the given dictionaries to the given action.
+     * Nodes shared by both dictionaries are skipped, so the cost depends on the size of the change.
+     * Values are compared by identity, equal values stored in different instances are reported as well.
+     */
+    static void diff(HashTrieDictElement from, HashTrieDictElement to, EntryChange action) {
+        diff(from.root, to.root, action);
+    }
+
+    private static void diff(Node from, Node to, EntryChange action) {
+        if (from == to) return;
+        if (!(from instanceof BitmapNode a && to instanceof BitmapNode b)) {
+            compare(entries(from, new HashMap<>()), entries(to, new HashMap<>()), action);
+            return;
+        }
+        for (int remaining = a.dataMap | a.nodeMap | b.dataMap | b.nodeMap; remaining != 0; remaining &= remaining - 1) {
+            int bit = Integer.lowestOneBit(remaining);
+            if ((a.nodeMap & bit) != 0 && (b.nodeMap & bit) != 0) {
+                diff(a.child(bit), b.child(bit), action);
+            } else if ((a.dataMap & bit) != 0 && (b.dataMap & bit) != 0) {
+                int i = 2 * index(a.dataMap, bit), j = 2 * index(b.dataMap, bit);
+                String fromKey = (String) a.content[i], toKey = (String) b.content[j];
+                Element fromValue = (Element) a.content[i + 1], toValue = (Element) b.content[j + 1];
+                if (!fromKey.equals(toKey)) {
+                    action.accept(fromKey, fromValue, null);
+                    action.accept(toKey, null, toValue);
+                } else if (fromValue != toValue) action.accept(fromKey, fromValue, toValue);
+            } else {
+                compare(slot(a, bit), slot(b, bit), action);
+            }
+        }
+    }
+
+    private static Map<String, Element> entries(Node node, Map<String, Element> into) {
+        each(node, into::put);
+        return into;
+    }
+
+    private static Map<String, Element> slot(BitmapNode node, int bit) {
+        Map<String, Element> entries = new HashMap<>();
+        if ((node.dataMap & bit) != 0) {
+            int i = 2 * index(node.dataMap, bit);
+            entries.put((String) node.content[i], (Element) node.content[i + 1]);
+        } else if ((node.nodeMap & bit) != 0) {
+            entries(node.child(bit), entries);
+        }
+        return entries;
+    }
+
+    private static void compare(Map<String, Element> from, Map<String, Element> to, EntryChange action) {
+        from.forEach((key, fromValue) -> {
+            Element toValue = to.remove(key);
+            if (fromValue != toValue) action.accept(key, fromValue, toValue);
+        });
+        to.forEach((key, toValue) -> action.accept(key, null, toValue));
+    }
+
+
+    @Override
+    public Element get(String key) {
+        Objects.requireNonNull(key, "given key is null");
+
+        Element value = lookup(root, key);
+        if (value == null) throw new ElementKeyNotPresentException(key);
+        return value;
+    }
+
+    @Override
+    public Optional<Element> find(String key) {
+        Objects.requireNonNull(key, "given key is null");
+
+        return Optional.ofNullable(lookup(root, key));
+    }
+
+    @Override
+    public void each(BiConsumer<String, Element> action) {
+        Objects.requireNonNull(action, "given action is null");
+
+        each(root, action);
+    }
+
+    @Override
+    public Map<String, Element> view() {
+        return new View(root, count);
+    }
+
+    @Override
+    public DictElement.Builder toBuilder() {
+        return new Builder(root, count, cachedHash);
+    }
+
+
+    @Override
+    public void each(Consumer<Element> action) {
+        Objects.requireNonNull(action, "given action is null");
+
+        each(root, (key, value) -> action.accept(value));
+    }
+
+    @Override
+    public void crawl(Consumer<Element> action) {
+        Objects.requireNonNull(action, "given action is null");
+
+        each(root, (key, element) -> {
+            if (element instanceof ElementCollection collection) {
+                collection.crawl(action);
+            }
+            action.accept(element);
+        });
+    }
+
+    @Override
+    public Stream<Element> stream() {
+        return values().stream();
+    }
+
+    @Override
+    public ListElement values() {
+        ListElement result = valuesReference.get();
+        if (result == null) {
+            List<Element> values = new ArrayList<>(count);
+            each(root, (key, value) -> values.add(value));
+            result = ListElement.of(values);
+            if (!valuesReference.compareAndSet(null, result)) {
+                return valuesReference.get(); // Other thread was faster, use that one instead.
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int count() {
+        return count;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+
+    @Override
+    public void writeTo(Destination destination) {
+        destination.openObject(count);
+        each(root, (key, value) -> {
+            destination.name(key);
+            destination.value(value);
+        });
+        destination.closeObject();
+    }
+
+    @Override
+    public long digest() {
+        long result = cachedDigest;
+        if (result == 0) cachedDigest = result = ElementDigests.dict(this);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "dict{" + count + "}";
+    }
+
+    @Override
+    public int hashCode() {
+        int result = cachedHash;
+        if (result == 0) {
+            // Computed when first needed, racy like the hash of a string
+            int[] hash = {0};
+            each(root, (key, value) -> hash[0] += entryHash(key, value));
+            result = hash[0];
+            cachedHash = result;
+        }
+        return result;
+    }
+
+
+    @Override
+    public boolean contentEquals(DictElement other) {
+        if (equals(other)) return true;
+        return ContentEquality.dicts(this, other);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o instanceof HashTrieDictElement that && root == that.root) return true;
+        return ContentEquality.memoryDicts(this, o);
+    }
+
+
+    /**
+     * Receives an entry that differs between two dictionaries, with {@code null} for a value that is not present.
+     */
+    @FunctionalInterface
+    interface EntryChange {
+
+        void accept(String key, Element from, Element to);
+    }
+
+    /**
+     * Collects the previous value of an entry changed by an edit.
+     */
+    private static final class Change {
+
+        private boolean changed;
+        private Element previous;
+
+
+        private void reset() {
+            changed = false;
+            previous = null;
+        }
+    }
+
+    private abstract static sealed class Node permits BitmapNode, CollisionNode {
+
+        abstract int dataCount();
+
+        abstract String key(int index);
+
+        abstract Element value(int index);
+
+        abstract int nodeCount();
+
+        abstract Node node(int index);
+
+
+        abstract Node put(Object edit, String key, int hash, Element value, int shift, Change change);
+
+        abstract Node remove(Object edit, String key, int hash, int shift, Change change);
+
+
+        final boolean isSingleEntry() {
+            return dataCount() == 1 && nodeCount() == 0;
+        }
+    }
+
+    /**
+     * A node storing entries inline, and child nodes for keys sharing the same hash part at this level.
+     * The content holds the keys and values of the entries first, followed by the child nodes.
+     */
+    private static final class BitmapNode extends Node {
+
+        private final Object edit;
+        private int dataMap;
+        private int nodeMap;
+        private Object[] content;
+
+
+        private BitmapNode(Object edit, int dataMap, int nodeMap, Object[] content) {
+            this.edit = edit;
+            this.dataMap = dataMap;
+            this.nodeMap = nodeMap;
+            this.content = content;
+        }
+
+
+        private static Node merge(Object edit, String key1, Element value1, String key2, int hash2, Element value2, int shift) {
+            int hash1 = key1.hashCode();
+            if (shift >= HASH_BITS)
+                return new CollisionNode(edit, new String[]{key1, key2}, new Element[]{value1, value2});
+
+            int bit1 = bit(hash1, shift);
+            int bit2 = bit(hash2, shift);
+            if (bit1 == bit2)
+                return new BitmapNode(edit, 0, bit1, new Object[]{merge(edit, key1, value1, key2, hash2, value2, shift + BITS)});
+            // Entries are ordered by slot, the sign bit being the highest slot
+            Object[] content = Integer.compareUnsigned(bit1, bit2) < 0
+                ? new Object[]{key1, value1, key2, value2}
+                : new Object[]{key2, value2, key1, value1};
+            return new BitmapNode(edit, bit1 | bit2, 0, content);
+        }
+
+
+        private int nodeIndex(int bit) {
+            return 2 * Integer.bitCount(dataMap) + index(nodeMap, bit);
+        }
+
+        private Node child(int bit) {
+            return (Node) content[nodeIndex(bit)];
+        }
+
+        private BitmapNode editable(Object edit) {
+            if (this.edit == edit) return this;
+            return new BitmapNode(edit, dataMap, nodeMap, content.clone());
+        }
+
+        private BitmapNode withContent(Object edit, int dataMap, int nodeMap, Object[] content) {
+            if (this.edit != edit) return new BitmapNode(edit, dataMap, nodeMap, content);
+            this.dataMap = dataMap;
+            this.nodeMap = nodeMap;
+            this.content = content;
+            return this;
+        }
+
+
+        @Override
+        int dataCount() {
+            return Integer.bitCount(dataMap);
+        }
+
+        @Override
+        String key(int index) {
+            return (String) content[2 * index];
+        }
+
+        @Override
+        Element value(int index) {
+            return (Element) content[2 * index + 1];
+        }
+
+        @Override
+        int nodeCount() {
+            return Integer.bitCount(nodeMap);
+        }
+
+        @Override
+        Node node(int index) {
+            return (Node) content[2 * Integer.bitCount(dataMap) + index];
+        }
+
+
+        @Override
+        Node put(Object edit, String key, int hash, Element value, int shift, Change change) {
+            int bit = bit(hash, shift);
+            if ((dataMap & bit) != 0) {
+                int i = 2 * index(dataMap, bit);
+                String currentKey = (String) content[i];
+                Element currentValue = (Element) content[i + 1];
+                if (key.equals(currentKey)) {
+                    change.changed = true;
+                    change.previous = currentValue;
+                    if (currentValue == value) return this;
+                    BitmapNode result = editable(edit);
+                    result.content[i + 1] = value;
+                    return result;
+                }
+                change.changed = true;
+                Node child = merge(edit, currentKey, currentValue, key, hash, value, shift + BITS);
+                return migrateToNode(edit, bit, i, child);
+            }
+            if ((nodeMap & bit) != 0) {
+                int i = nodeIndex(bit);
+                Node child = (Node) content[i];
+                Node newChild = child.put(edit, key, hash, value, shift + BITS, change);
+                if (newChild == child) return this;
+                BitmapNode result = editable(edit);
+                result.content[i] = newChild;
+                return result;
+            }
+            change.changed = true;
+            int i = 2 * index(dataMap, bit);
+            Object[] newContent = new Object[content.length + 2];
+            System.arraycopy(content, 0, newContent, 0, i);
+            newContent[i] = key;
+            newContent[i + 1] = value;
+            System.arraycopy(content, i, newContent, i + 2, content.length - i);
+            return withContent(edit, dataMap | bit, nodeMap, newContent);
+        }
+
+        private Node migrateToNode(Object edit, int bit, int dataIndex, Node child) {
+            int newDataMap = dataMap ^ bit;
+            int newNodeMap = nodeMap | bit;
+            // The node index is calculated after removing the entry
+            int nodeIndex = 2 * Integer.bitCount(newDataMap) + index(newNodeMap, bit);
+            Object[] newContent = new Object[content.length - 1];
+            System.arraycopy(content, 0, newContent, 0, dataIndex);
+            System.arraycopy(content, dataIndex + 2, newContent, dataIndex, nodeIndex - dataIndex);
+            newContent[nodeIndex] = child;
+            System.arraycopy(content, nodeIndex + 2, newContent, nodeIndex + 1, content.length - nodeIndex - 2);
+            return withContent(edit, newDataMap, newNodeMap, newContent);
+        }
+
+        @Override
+        Node remove(Object edit, String key, int hash, int shift, Change change) {
+            int bit = bit(hash, shift);
+            if ((dataMap & bit) != 0) {
+                int i = 2 * index(dataMap, bit);
+                if (!key.equals(content[i])) return this;
+                change.changed = true;
+                change.previous = (Element) content[i + 1];
+                Object[] newContent = new Object[content.length - 2];
+                System.arraycopy(content, 0, newContent, 0, i);
+                System.arraycopy(content, i + 2, newContent, i, content.length - i - 2);
+                return withContent(edit, dataMap ^ bit, nodeMap, newContent);
+            }
+            if ((nodeMap & bit) != 0) {
+                int i = nodeIndex(bit);
+                Node child = (Node) content[i];
+                Node newChild = child.remove(edit, key, hash, shift + BITS, change);
+                if (newChild == child) return this;
+                if (newChild.isSingleEntry()) {
+                    // Let the parent inline the remaining entry, unless this is the root
+                    if (shift > 0 && dataMap == 0 && nodeMap == bit) return newChild;
+                    return migrateToData(edit, bit, i, newChild.key(0), newChild.value(0));
+                }
+                BitmapNode result = editable(edit);
+                result.content[i] = newChild;
+                return result;
+            }
+            return this;
+        }
+
+        private Node migrateToData(Object edit, int bit, int nodeIndex, String key, Element value) {
+            int newDataMap = dataMap | bit;
+            int dataIndex = 2 * index(newDataMap, bit);
+            Object[] newContent = new Object[content.length + 1];
+            System.arraycopy(content, 0, newContent, 0, dataIndex);
+            newContent[dataIndex] = key;
+            newContent[dataIndex + 1] = value;
+            System.arraycopy(content, dataIndex, newContent, dataIndex + 2, nodeIndex - dataIndex);
+            System.arraycopy(content, nodeIndex + 1, newContent, nodeIndex + 2, content.length - nodeIndex - 1);
+            return withContent(edit, newDataMap, nodeMap ^ bit, newContent);
+        }
+    }
+
+    /**
+     * A node storing entries with keys that have the exact same hash.
+     */
+    private static final class CollisionNode extends Node {
+
+        private final Object edit;
+        private String[] keys;
+        private Element[] values;
+
+
+        private CollisionNode(Object edit, String[] keys, Element[] values) {
+            this.edit = edit;
+            this.keys = keys;
+            this.values = values;
+        }
+
+
+        private int indexOf(String key) {
+            for (int i = 0; i < keys.length; i++)
+                if (key.equals(keys[i])) return i;
+            return -1;
+        }
+
+        private Element find(String key) {
+            int i = indexOf(key);
+            return i == -1 ? null : values[i];
+        }
+
+        private CollisionNode withContent(Object edit, String[] keys, Element[] values) {
+            if (this.edit != edit) return new CollisionNode(edit, keys, values);
+            this.keys = keys;
+            this.values = values;
+            return this;
+        }
+
+
+        @Override
+        int dataCount() {
+            return keys.length;
+        }
+
+        @Override
+        String key(int index) {
+            return keys[index];
+        }
+
+        @Override
+        Element value(int index) {
+            return values[index];
+        }
+
+        @Override
+        int nodeCount() {
+            return 0;
+        }
+
+        @Override
+        Node node(int index) {
+            throw new IndexOutOfBoundsException(index);
+        }
+
+
+        @Override
+        Node put(Object edit, String key, int hash, Element value, int shift, Change change) {
+            change.changed = true;
+            int i = indexOf(key);
+            if (i != -1) {
+                change.previous = values[i];
+                if (values[i] == value) return this;
+                Element[] newValues = values.clone();
+                newValues[i] = value;
+                return withContent(edit, keys, newValues);
+            }
+            String[] newKeys = Arrays.copyOf(keys, keys.length + 1);
+            Element[] newValues = Arrays.copyOf(values, values.length + 1);
+            newKeys[keys.length] = key;
+            newValues[values.length] = value;
+            return withContent(edit, newKeys, newValues);
+        }
+
+        @Override
+        Node remove(Object edit, String key, int hash, int shift, Change change) {
+            int i = indexOf(key);
+            if (i == -1) return this;
+            change.changed = true;
+            change.previous = values[i];
+            String[] newKeys = new String[keys.length - 1];
+            Element[] newValues = new Element[values.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, i);
+            System.arraycopy(keys, i + 1, newKeys, i, newKeys.length - i);
+            System.arraycopy(values, 0, newValues, 0, i);
+            System.arraycopy(values, i + 1, newValues, i, newValues.length - i);
+            return withContent(edit, newKeys, newValues);
+        }
+    }
+
+    private static final class EntryIterator implements Iterator<Map.Entry<String, Element>> {
+
+        private final Node[] nodes = new Node[MAX_DEPTH];
+        private final int[] nodeCursors = new int[MAX_DEPTH];
+        private int depth = -1;
+        private Node dataNode;
+        private int dataCursor;
+
+
+        private EntryIterator(Node root) {
+            push(root);
+        }
+
+
+        private void push(Node node) {
+            nodes[++depth] = node;
+            nodeCursors[depth] = 0;
+            dataNode = node;
+            dataCursor = 0;
+        }
+
+
+        @Override
+        public boolean hasNext() {
+            while (true) {
+                if (dataNode != null && dataCursor < dataNode.dataCount()) return true;
+                dataNode = null;
+                if (depth < 0) return false;
+                Node top = nodes[depth];
+                if (nodeCursors[depth] < top.nodeCount()) push(top.node(nodeCursors[depth]++));
+                else nodes[depth--] = null;
+            }
+        }
+
+        @Override
+        public Map.Entry<String, Element> next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            int i = dataCursor++;
+            return Map.entry(dataNode.key(i), dataNode.value(i));
+        }
+    }
+
+    private static final class View extends AbstractMap<String, Element> {
+
+        private final Node root;
+        private final int count;
+
+
+        private View(Node root, int count) {
+            this.root = root;
+            this.count = count;
+        }
+
+
+        @Override
+        public Element get(Object key) {
+            return key instanceof String string ? lookup(root, string) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public int size() {
+            return count;
+        }
+
+        @Override
+        public void forEach(BiConsumer<? super String, ? super Element> action) {
+            Objects.requireNonNull(action, "given action is null");
+            each(root, action::accept);
+        }
+
+        @Override
+        public Set<Entry<String, Element>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, Element>> iterator() {
+                    return new EntryIterator(root);
+                }
+
+                @Override
+                public int size() {
+                    return count;
+                }
+            };
+        }
+    }
+
+
+    public static final class Builder implements DictElement.Builder {
+
+        private final Change change = new Change();
+        // Nodes created with this token belong to this builder, and can be edited in place
+        private Object edit = new Object();
+        private Node root;
+        private int count;
+        // Only kept up to date when the dictionary it was created from was already hashed, zero otherwise,
+        // so that building a dictionary does not force the hashes of its values
+        private int hash;
+
+
+        private Builder(Node root, int count, int hash) {
+            this.root = root;
+            this.count = count;
+            this.hash = hash;
+        }
+
+
+        private void freeze() {
+            edit = new Object();
+        }
+
+
+        @Override
+        public DictElement build() {
+            if (count == 0) return EMPTY;
+            freeze();
+            return new HashTrieDictElement(root, count, hash);
+        }
+
+
+        @Override
+        public DictElement.Builder put(String key, Element element) {
+            Objects.requireNonNull(key, "given key is null");
+            Objects.requireNonNull(element, "given element is null");
+
+            putEntry(key, element);
+            return this;
+        }
+
+        private void putEntry(String key, Element element) {
+            change.reset();
+            root = root.put(edit, key, key.hashCode(), element, 0, change);
+            if (change.previous == null && change.changed) count++;
+            if (hash != 0 && change.changed) {
+                if (change.previous != null) hash -= entryHash(key, change.previous);
+                hash += entryHash(key, element);
+            }
+        }
+
+        @Override
+        public DictElement.Builder putAll(DictElement values) {
+            Objects.requireNonNull(values, "given dictionary element is null");
+
+            if (count == 0 && values instanceof HashTrieDictElement trie) {
+                root = trie.root;
+                count = trie.count;
+                hash = trie.cachedHash;
+                return this;
+            }
+            // The entries of a dictionary element are never null, so they do not need to be checked
+            values.each(this::putEntry);
+            return this;
+        }
+
+        @Override
+        public DictElement.Builder putAll(Map<String, Element> values) {
+            Objects.requireNonNull(values, "given map is null");
+
+            values.forEach(this::put);
+            return this;
+        }
+
+        @Override
+        public DictElement.Builder remove(String key) {
+            Objects.requireNonNull(key, "given key is null");
+
+            change.reset();
+            root = root.remove(edit, key, key.hashCode(), 0, change);
+            if (change.changed) {
+                if (hash != 0) hash -= entryHash(key, change.previous);
+                count--;
+            }
+            return this;
+        }
+
+        @Override
+        public DictElement.Builder remove(String... keys) {
+            Objects.requireNonNull(keys, "given array is null");
+            return remove(Arrays.asList(keys));
+        }
+
+        @Override
+        public DictElement.Builder remove(Collection<String> keys) {
+            Objects.requireNonNull(keys, "given collection is null");
+
+            for (String key : keys)
+                if (key != null) remove(key);
+            return this;
+        }
+
+        @Override
+        public DictElement.Builder keep(String... keys) {
+            Objects.requireNonNull(keys, "given array is null");
+            return keep(Arrays.asList(keys));
+        }
+
+        @Override
+        public DictElement.Builder keep(Collection<String> keys) {
+            Objects.requireNonNull(keys, "given collection is null");
+
+            Node current = root;
+            root = EMPTY_NODE;
+            count = 0;
+            hash = 0;
+            for (String key : keys) {
+                if (key == null) continue;
+                Element value = lookup(current, key);
+                if (value != null) putEntry(key, value);
+            }
+            return this;
+        }
+
+        @Override
+        public Map<String, Element> view() {
+            // Edits after this copy the nodes they touch, so the view is not affected
+            freeze();
+            return new View(root, count);
+        }
+    }
+}
+
+/*
+Copyright 2024 Timar Karels
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
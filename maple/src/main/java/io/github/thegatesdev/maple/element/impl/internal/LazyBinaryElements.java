@@ -0,0 +1,74 @@
+package io.github.thegatesdev.maple.element.impl.internal;
+
+import io.github.thegatesdev.maple.element.*;
+import io.github.thegatesdev.maple.exception.*;
+import io.github.thegatesdev.maple.io.binary.impl.*;
+
+import java.util.*;
+
+/**
+ * Creates elements from Maple binary data, materializing the members of collections on demand.
+ *
+ * @author Timar Karels
+ */
+public final class LazyBinaryElements {
+
+    private LazyBinaryElements() {
+    }
+
+
+    public static Element of(byte[] data) {
+        Objects.requireNonNull(data, "given array is null");
+
+        int end = BinaryIndex.valueEnd(data, 0, data.length);
+        if (end != data.length) throw new InvalidBinaryException("Unexpected data after value (at offset " + end + ")");
+        return of(data, 0, end);
+    }
+
+    static Element of(byte[] data, int start, int end) {
+        if (BinaryIndex.isCollection(data[start])) return of(data, BinaryIndex.of(data, start, end));
+        return Element.read(BinarySource.create(data, start, end - start));
+    }
+
+
+    private static Element of(byte[] data, BinaryIndex index) {
+        Members members = new Members(data, index);
+        if (index.isObject()) return index.count() == 0 ? MemoryDictElement.EMPTY : new LazyDictElement(members);
+        return index.count() == 0 ? MemoryListElement.EMPTY : new LazyListElement(members);
+    }
+
+
+    private record Members(byte[] data, BinaryIndex index) implements LazyMembers {
+
+        @Override
+        public int count() {
+            return index.count();
+        }
+
+        @Override
+        public String key(int member) {
+            return BinaryIndex.text(data, index.keyStart(member), index.keyEnd(member));
+        }
+
+        @Override
+        public Element value(int member) {
+            return LazyBinaryElements.of(data, index.valueStart(member), index.valueEnd(member));
+        }
+    }
+}
+
+/*
+Copyright 2024 Timar Karels
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
@@ -0,0 +1,198 @@
+package io.github.thegatesdev.maple.element.impl.internal;
+
+import io.github.thegatesdev.maple.element.*;
+import io.github.thegatesdev.maple.exception.*;
+import io.github.thegatesdev.maple.io.*;
+
+import java.util.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+import java.util.stream.*;
+
+/**
+ * A dictionary element backed by encoded data, only decoding its values when they are first accessed.
+ * Operations that need all values materialize the whole dictionary once.
+ *
+ * @author Timar Karels
+ */
+public final class LazyDictElement implements DictElement {
+
+    private final LazyMembers members;
+    private final AtomicReferenceArray<Element> values;
+
+    private volatile Map<String, Integer> slots;
+    private volatile MemoryDictElement materialized;
+    private volatile long cachedDigest;
+
+
+    LazyDictElement(LazyMembers members) {
+        this.members = members;
+        this.values = new AtomicReferenceArray<>(members.count());
+    }
+
+
+    private Map<String, Integer> slots() {
+        Map<String, Integer> result = slots;
+        if (result == null) {
+            int count = members.count();
+            result = HashMap.newHashMap(count);
+            // Later duplicate keys replace earlier ones, like they would when parsing
+            for (int i = 0; i < count; i++)
+                result.put(members.key(i), i);
+            slots = result; // Racy, but every thread computes the same map.
+        }
+        return result;
+    }
+
+    private Element value(int slot) {
+        Element result = values.get(slot);
+        if (result == null) {
+            result = members.value(slot);
+            if (!values.compareAndSet(slot, null, result)) {
+                return values.get(slot); // Other thread was faster, use that one instead.
+            }
+        }
+        return result;
+    }
+
+    private MemoryDictElement materialized() {
+        MemoryDictElement result = materialized;
+        if (result == null) {
+            Map<String, Element> entries = HashMap.newHashMap(members.count());
+            slots().forEach((key, slot) -> entries.put(key, value(slot)));
+            materialized = result = new MemoryDictElement(entries);
+        }
+        return result;
+    }
+
+
+    @Override
+    public Element get(String key) {
+        Objects.requireNonNull(key, "given key is null");
+
+        Integer slot = slots().get(key);
+        if (slot == null) throw new ElementKeyNotPresentException(key);
+        return value(slot);
+    }
+
+    @Override
+    public Optional<Element> find(String key) {
+        Objects.requireNonNull(key, "given key is null");
+
+        Integer slot = slots().get(key);
+        if (slot == null) return Optional.empty();
+        return Optional.of(value(slot));
+    }
+
+    @Override
+    public void each(BiConsumer<String, Element> action) {
+        Objects.requireNonNull(action, "given action is null");
+
+        slots().forEach((key, slot) -> action.accept(key, value(slot)));
+    }
+
+    @Override
+    public Map<String, Element> view() {
+        return materialized().view();
+    }
+
+    @Override
+    public DictElement.Builder toBuilder() {
+        return materialized().toBuilder();
+    }
+
+
+    @Override
+    public void each(Consumer<Element> action) {
+        Objects.requireNonNull(action, "given action is null");
+
+        for (int slot : slots().values()) action.accept(value(slot));
+    }
+
+    @Override
+    public void crawl(Consumer<Element> action) {
+        materialized().crawl(action);
+    }
+
+    @Override
+    public Stream<Element> stream() {
+        return materialized().stream();
+    }
+
+    @Override
+    public ListElement values() {
+        return materialized().values();
+    }
+
+    @Override
+    public int count() {
+        return slots().size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return members.count() == 0;
+    }
+
+
+    @Override
+    public void writeTo(Destination destination) {
+        Map<String, Integer> slots = slots();
+        destination.openObject(slots.size());
+        int count = members.count();
+        for (int i = 0; i < count; i++) {
+            String key = members.key(i);
+            if (slots.get(key) != i) continue; // Replaced by a later duplicate key
+            destination.name(key);
+            // Written through the value, so duplicate keys in nested dictionaries are left out as well
+            destination.value(value(i));
+        }
+        destination.closeObject();
+    }
+
+    @Override
+    public long digest() {
+        long result = cachedDigest;
+        if (result == 0) cachedDigest = result = ElementDigests.dict(this);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "dict{" + count() + "}";
+    }
+
+    @Override
+    public int hashCode() {
+        return materialized().hashCode();
+    }
+
+
+    @Override
+    public boolean contentEquals(DictElement other) {
+        if (equals(other)) return true;
+        return ContentEquality.dicts(this, other);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        return ContentEquality.memoryDicts(this, o);
+    }
+}
+
+/*
+Copyright 2024 Timar Karels
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
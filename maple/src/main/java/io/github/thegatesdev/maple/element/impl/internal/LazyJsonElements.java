@@ -0,0 +1,100 @@
+package io.github.thegatesdev.maple.element.impl.internal;
+
+import io.github.thegatesdev.maple.element.*;
+import io.github.thegatesdev.maple.io.json.impl.*;
+
+import java.nio.charset.*;
+import java.util.*;
+
+/**
+ * Creates elements from UTF-8 encoded JSON data, materializing the members of collections on demand.
+ *
+ * @author Timar Karels
+ */
+public final class LazyJsonElements {
+
+    private LazyJsonElements() {
+    }
+
+
+    public static Element of(byte[] json) {
+        Objects.requireNonNull(json, "given array is null");
+
+        int start = Utf8JsonIndex.valueStart(json, 0, json.length);
+        int end;
+        Element element;
+        if (isCollection(json[start])) {
+            Utf8JsonIndex index = Utf8JsonIndex.of(json, start, json.length);
+            end = index.end();
+            element = of(json, index);
+        } else {
+            end = Utf8JsonIndex.scalarEnd(json, start, json.length);
+            element = parse(json, start, end);
+        }
+        Utf8JsonIndex.requireWhitespace(json, end, json.length);
+        return element;
+    }
+
+    static Element of(byte[] json, int start, int end) {
+        if (isCollection(json[start])) return of(json, Utf8JsonIndex.of(json, start, end));
+        return parse(json, start, end);
+    }
+
+    static String key(byte[] json, int start, int end) {
+        for (int i = start; i < end; i++) {
+            // Escaped and non-ASCII keys are rare, let the parser unescape and validate those
+            if (json[i] == '\\' || json[i] < 0) return parse(json, start - 1, end + 1).getString();
+        }
+        return new String(json, start, end - start, StandardCharsets.ISO_8859_1);
+    }
+
+
+    private static Element of(byte[] json, Utf8JsonIndex index) {
+        Members members = new Members(json, index);
+        if (index.isObject()) return index.count() == 0 ? MemoryDictElement.EMPTY : new LazyDictElement(members);
+        return index.count() == 0 ? MemoryListElement.EMPTY : new LazyListElement(members);
+    }
+
+    private static Element parse(byte[] json, int start, int end) {
+        return Element.read(Utf8JsonSource.create(json, start, end - start));
+    }
+
+    private static boolean isCollection(byte first) {
+        return first == '{' || first == '[';
+    }
+
+
+    private record Members(byte[] json, Utf8JsonIndex index) implements LazyMembers {
+
+        @Override
+        public int count() {
+            return index.count();
+        }
+
+        @Override
+        public String key(int member) {
+            return LazyJsonElements.key(json, index.keyStart(member), index.keyEnd(member));
+        }
+
+        @Override
+        public Element value(int member) {
+            return LazyJsonElements.of(json, index.valueStart(member), index.valueEnd(member));
+        }
+    }
+}
+
+/*
+Copyright 2024 Timar Karels
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
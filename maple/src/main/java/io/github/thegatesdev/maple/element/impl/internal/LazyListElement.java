@@ -0,0 +1,176 @@
+package io.github.thegatesdev.maple.element.impl.internal;
+
+import io.github.thegatesdev.maple.element.*;
+import io.github.thegatesdev.maple.io.*;
+
+import java.util.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+import java.util.stream.*;
+
+/**
+ * A list element backed by encoded data, only decoding its values when they are first accessed.
+ * Operations that need all values materialize the whole list once.
+ *
+ * @author Timar Karels
+ */
+public final class LazyListElement implements ListElement {
+
+    private final LazyMembers members;
+    private final AtomicReferenceArray<Element> values;
+
+    private volatile MemoryListElement materialized;
+    private volatile long cachedDigest;
+
+
+    LazyListElement(LazyMembers members) {
+        this.members = members;
+        this.values = new AtomicReferenceArray<>(members.count());
+    }
+
+
+    private Element value(int slot) {
+        Element result = values.get(slot);
+        if (result == null) {
+            result = members.value(slot);
+            if (!values.compareAndSet(slot, null, result)) {
+                return values.get(slot); // Other thread was faster, use that one instead.
+            }
+        }
+        return result;
+    }
+
+    private MemoryListElement materialized() {
+        MemoryListElement result = materialized;
+        if (result == null) {
+            Element[] elements = new Element[members.count()];
+            for (int i = 0; i < elements.length; i++) elements[i] = value(i);
+            materialized = result = new MemoryListElement(elements);
+        }
+        return result;
+    }
+
+
+    @Override
+    public Element get(int index) {
+        return value(Objects.checkIndex(index, members.count()));
+    }
+
+    @Override
+    public Optional<Element> find(int index) {
+        if (index < 0 || index >= members.count()) return Optional.empty();
+        return Optional.of(value(index));
+    }
+
+    @Override
+    public List<Element> view() {
+        return materialized().view();
+    }
+
+    @Override
+    public ListElement.Builder toBuilder() {
+        return materialized().toBuilder();
+    }
+
+    @Override
+    public Element[] toArray() {
+        return materialized().toArray();
+    }
+
+
+    @Override
+    public void each(Consumer<Element> action) {
+        Objects.requireNonNull(action, "given action is null");
+
+        for (int i = 0, count = members.count(); i < count; i++) action.accept(value(i));
+    }
+
+    @Override
+    public void crawl(Consumer<Element> action) {
+        Objects.requireNonNull(action, "given action is null");
+
+        for (int i = 0, count = members.count(); i < count; i++) {
+            Element value = value(i);
+            if (value instanceof ElementCollection collection) {
+                collection.crawl(action);
+            }
+            action.accept(value);
+        }
+    }
+
+    @Override
+    public Stream<Element> stream() {
+        return materialized().stream();
+    }
+
+    @Override
+    public ListElement values() {
+        return this;
+    }
+
+    @Override
+    public int count() {
+        return members.count();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return members.count() == 0;
+    }
+
+
+    @Override
+    public void writeTo(Destination destination) {
+        int count = members.count();
+        destination.openArray(count);
+        // Written through the values, so duplicate keys in nested dictionaries are left out
+        for (int i = 0; i < count; i++) destination.value(value(i));
+        destination.closeArray();
+    }
+
+    @Override
+    public long digest() {
+        long result = cachedDigest;
+        if (result == 0) cachedDigest = result = ElementDigests.list(this);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "list[" + members.count() + "]";
+    }
+
+    @Override
+    public int hashCode() {
+        return materialized().hashCode();
+    }
+
+
+    @Override
+    public boolean contentEquals(ListElement other) {
+        if (equals(other)) return true;
+        return ContentEquality.lists(this, other);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        return ContentEquality.memoryLists(this, o);
+    }
+}
+
+/*
+Copyright 2024 Timar Karels
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
@@ -0,0 +1,40 @@
+package io.github.thegatesdev.maple.element.impl.internal;
+
+import io.github.thegatesdev.maple.element.*;
+
+/**
+ * The members of an object or array in encoded data, located up front and decoded when they are accessed.
+ * Only used internally to back lazy dictionary and list elements.
+ *
+ * @author Timar Karels
+ */
+interface LazyMembers {
+
+    int count();
+
+    /**
+     * Decode the key of the given member of an object.
+     */
+    String key(int member);
+
+    /**
+     * Decode the value of the given member.
+     */
+    Element value(int member);
+}
+
+/*
+Copyright 2024 Timar Karels
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
@@ -19,22 +19,35 @@ public final class MemoryDictElement implements DictElement {
     public static final MemoryDictElement EMPTY = new MemoryDictElement(Collections.emptyMap());
 
     private final Map<String, Element> entries;
-    private final int cachedHash;
+    private int cachedHash;
+    private volatile long cachedDigest;
     private final AtomicReference<ListElement> valuesReference = new AtomicReference<>();
 
 
     MemoryDictElement(Map<String, Element> entries) {
         this.entries = entries;
-        this.cachedHash = makeHash();
     }
 
     public static DictElement of(Map<String, Element> entries) {
         Objects.requireNonNull(entries, "given map is null");
 
         if (entries.isEmpty()) return EMPTY;
+        if (entries.size() <= ArrayDictElement.MAX_SIZE) return ArrayDictElement.of(entries);
         return new MemoryDictElement(new HashMap<>(entries));
     }
 
+    /**
+     * Get a dictionary element for the given entries, without copying them if a map is used.
+     * Small dictionaries are stored in an array instead.
+     */
+    public static DictElement wrap(Map<String, Element> entries) {
+        Objects.requireNonNull(entries, "given map is null");
+
+        if (entries.isEmpty()) return EMPTY;
+        if (entries.size() <= ArrayDictElement.MAX_SIZE) return ArrayDictElement.of(entries);
+        return new MemoryDictElement(entries);
+    }
+
     public static DictElement.Builder builder() {
         return builder(5);
     }
@@ -129,7 +142,7 @@ public final class MemoryDictElement implements DictElement {
 
     @Override
     public void writeTo(Destination destination) {
-        destination.openObject();
+        destination.openObject(entries.size());
         for (var entry : entries.entrySet()) {
             destination.name(entry.getKey());
             destination.value(entry.getValue());
@@ -137,6 +150,13 @@ public final class MemoryDictElement implements DictElement {
         destination.closeObject();
     }
 
+    @Override
+    public long digest() {
+        long result = cachedDigest;
+        if (result == 0) cachedDigest = result = ElementDigests.dict(this);
+        return result;
+    }
+
     @Override
     public String toString() {
         return "dict{" + entries.size() + "}";
@@ -144,7 +164,13 @@ public final class MemoryDictElement implements DictElement {
 
     @Override
     public int hashCode() {
-        return cachedHash;
+        int result = cachedHash;
+        if (result == 0) {
+            // Computed when first needed, racy like the hash of a string
+            result = makeHash();
+            cachedHash = result;
+        }
+        return result;
     }
 
     private int makeHash() {
@@ -155,16 +181,14 @@ public final class MemoryDictElement implements DictElement {
     @Override
     public boolean contentEquals(DictElement other) {
         if (equals(other)) return true;
-        return entries.equals(other.view());
+        return ContentEquality.dicts(this, other);
     }
 
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-
-        MemoryDictElement that = (MemoryDictElement) o;
-        return cachedHash == that.cachedHash && entries.equals(that.entries);
+        if (o instanceof MemoryDictElement that) return hashCode() == that.hashCode() && entries.equals(that.entries);
+        return ContentEquality.memoryDicts(this, o);
     }
 
 
@@ -196,6 +220,8 @@ public final class MemoryDictElement implements DictElement {
         @Override
         public DictElement build() {
             if (values.isEmpty()) return DictElement.empty();
+            // Small dictionaries copy the values into an array, so the map does not need to be shared
+            if (values.size() <= ArrayDictElement.MAX_SIZE) return ArrayDictElement.of(values);
             needsCopy = true;
             // Don't defensively copy the builder values map.
             // Often, a builder is only used once and then discarded.
@@ -207,7 +233,7 @@ public final class MemoryDictElement implements DictElement {
         @Override
         public DictElement.Builder put(String key, Element element) {
             Objects.requireNonNull(key, "given key is null");
-            Objects.requireNonNull(key, "given element is null");
+            Objects.requireNonNull(element, "given element is null");
 
             checkEdit();
             values.put(key, element);
@@ -218,7 +244,11 @@ public final class MemoryDictElement implements DictElement {
         public DictElement.Builder putAll(DictElement values) {
             Objects.requireNonNull(values, "given dictionary element is null");
 
-            return putAll(values instanceof MemoryDictElement memoryDictElement ? memoryDictElement.entries : values.view());
+            if (values instanceof MemoryDictElement memoryDictElement) return putAll(memoryDictElement.entries);
+            // The entries of a dictionary element are never null, so they do not need to be checked
+            checkEdit();
+            values.each(this.values::put);
+            return this;
         }
 
         @Override
@@ -266,8 +296,11 @@ public final class MemoryDictElement implements DictElement {
             Objects.requireNonNull(keys, "given collection is null");
 
             Map<String, Element> output = new HashMap<>(keys.size());
-            for (String key : keys)
-                if (key != null) output.put(key, values.get(key));
+            for (String key : keys) {
+                if (key == null) continue;
+                Element value = values.get(key);
+                if (value != null) output.put(key, value);
+            }
             values = output;
             needsCopy = false;
             return this;
@@ -18,26 +18,56 @@ public final class MemoryListElement implements ListElement {
     public static final MemoryListElement EMPTY = new MemoryListElement(EMPTY_EL_ARR);
 
     private final Element[] values;
-    private final int cachedHash;
+    private final int count;
+    private int cachedHash;
+    private volatile long cachedDigest;
 
 
     MemoryListElement(Element[] values) {
+        this(values, values.length);
+    }
+
+    /**
+     * The values array may be longer than the list, the slots after the first {@code count} are unused.
+     */
+    MemoryListElement(Element[] values, int count) {
         this.values = values;
-        this.cachedHash = makeHash();
+        this.count = count;
     }
 
     public static ListElement of(Element[] values) {
         Objects.requireNonNull(values, "given array is null");
 
         if (values.length == 0) return EMPTY;
-        return new MemoryListElement(Arrays.copyOf(values, values.length));
+        return wrap(Arrays.copyOf(values, values.length));
     }
 
     public static ListElement of(Collection<Element> values) {
         Objects.requireNonNull(values, "given collection is null");
 
         if (values.isEmpty()) return EMPTY;
-        return new MemoryListElement(values.toArray(EMPTY_EL_ARR)); // Look mom! I'm reusing the empty array! Memory efficiency!
+        return wrap(values.toArray(EMPTY_EL_ARR)); // Look mom! I'm reusing the empty array! Memory efficiency!
+    }
+
+    /**
+     * Get a list element for the given values, without copying the array if it is used.
+     * Lists of numbers with the same type are stored in a primitive array instead.
+     */
+    public static ListElement wrap(Element[] values) {
+        Objects.requireNonNull(values, "given array is null");
+
+        return wrap(values, values.length);
+    }
+
+    /**
+     * Get a list element for the first {@code count} given values, without copying the array if it is used.
+     * The array may be longer, so that it does not need to be trimmed.
+     */
+    static ListElement wrap(Element[] values, int count) {
+        if (count == 0) return EMPTY;
+        PrimitiveListElement primitive = PrimitiveListElement.of(values, count);
+        if (primitive != null) return primitive;
+        return new MemoryListElement(values, count);
     }
 
     public static Builder builder() {
@@ -53,28 +83,28 @@ public final class MemoryListElement implements ListElement {
 
     @Override
     public Element get(int index) {
-        return values[index];
+        return values[Objects.checkIndex(index, count)];
     }
 
     @Override
     public Optional<Element> find(int index) {
-        if (index < 0 || index >= values.length) return Optional.empty();
+        if (index < 0 || index >= count) return Optional.empty();
         return Optional.of(get(index));
     }
 
     @Override
     public List<Element> view() {
-        return List.of(values);
+        return Collections.unmodifiableList(Arrays.asList(values).subList(0, count));
     }
 
     @Override
     public ListElement.Builder toBuilder() {
-        return new Builder(Arrays.asList(values));
+        return new Builder(new ArrayList<>(Arrays.asList(values).subList(0, count)));
     }
 
     @Override
     public Element[] toArray() {
-        return Arrays.copyOf(values, values.length);
+        return Arrays.copyOf(values, count);
     }
 
 
@@ -82,14 +112,15 @@ public final class MemoryListElement implements ListElement {
     public void each(Consumer<Element> action) {
         Objects.requireNonNull(action, "given action is null");
 
-        for (Element value : values) action.accept(value);
+        for (int i = 0; i < count; i++) action.accept(values[i]);
     }
 
     @Override
     public void crawl(Consumer<Element> action) {
         Objects.requireNonNull(action, "given action is null");
 
-        for (Element value : values) {
+        for (int i = 0; i < count; i++) {
+            Element value = values[i];
             if (value instanceof ElementCollection collection) {
                 collection.crawl(action);
             }
@@ -99,7 +130,7 @@ public final class MemoryListElement implements ListElement {
 
     @Override
     public Stream<Element> stream() {
-        return Arrays.stream(values);
+        return Arrays.stream(values, 0, count);
     }
 
     @Override
@@ -109,50 +140,63 @@ public final class MemoryListElement implements ListElement {
 
     @Override
     public int count() {
-        return values.length;
+        return count;
     }
 
     @Override
     public boolean isEmpty() {
-        return this == EMPTY || values.length == 0;
+        return this == EMPTY || count == 0;
     }
 
 
     @Override
     public void writeTo(Destination destination) {
-        destination.openArray();
-        for (Element value : values) destination.value(value);
+        destination.openArray(count);
+        for (int i = 0; i < count; i++) destination.value(values[i]);
         destination.closeArray();
     }
 
+    @Override
+    public long digest() {
+        long result = cachedDigest;
+        if (result == 0) cachedDigest = result = ElementDigests.list(this);
+        return result;
+    }
+
     @Override
     public String toString() {
-        return "list[" + values.length + "]";
+        return "list[" + count + "]";
     }
 
     @Override
     public int hashCode() {
-        return cachedHash;
+        int result = cachedHash;
+        if (result == 0) {
+            // Computed when first needed, racy like the hash of a string
+            result = makeHash();
+            cachedHash = result;
+        }
+        return result;
     }
 
     private int makeHash() {
-        return Arrays.hashCode(values);
+        int result = 1;
+        for (int i = 0; i < count; i++) result = 31 * result + values[i].hashCode();
+        return result;
     }
 
 
     @Override
     public boolean contentEquals(ListElement other) {
         if (equals(other)) return true;
-        return Arrays.equals(values, other.toArray());
+        return ContentEquality.lists(this, other);
     }
 
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-
-        MemoryListElement that = (MemoryListElement) o;
-        return cachedHash == that.cachedHash && Arrays.equals(values, that.values);
+        if (o instanceof MemoryListElement that) return hashCode() == that.hashCode() && Arrays.equals(values, 0, count, that.values, 0, that.count);
+        return ContentEquality.memoryLists(this, o);
     }
 
 
@@ -173,7 +217,7 @@ public final class MemoryListElement implements ListElement {
         @Override
         public ListElement build() {
             if (values.isEmpty()) return ListElement.empty();
-            return new MemoryListElement(values.toArray(EMPTY_EL_ARR));
+            return wrap(values.toArray(EMPTY_EL_ARR));
         }
 
 
@@ -190,8 +234,10 @@ public final class MemoryListElement implements ListElement {
             Objects.requireNonNull(element, "given list element is null");
 
             if (element instanceof MemoryListElement memoryListElement)
-                return addAll(memoryListElement.values); // Using the immutable view may be more expensive.
-            return addAll(element.view());
+                return addAll(Arrays.asList(memoryListElement.values).subList(0, memoryListElement.count)); // Using the immutable view may be more expensive.
+            // The values of a list element are never null, so they do not need to be checked
+            element.each(values::add);
+            return this;
         }
 
         @Override
@@ -209,6 +255,14 @@ public final class MemoryListElement implements ListElement {
             return addAll(Arrays.asList(elements));
         }
 
+        @Override
+        public ListElement.Builder set(int index, Element element) {
+            Objects.requireNonNull(element, "given element is null");
+
+            values.set(index, element);
+            return this;
+        }
+
         @Override
         public ListElement.Builder remove(int index) {
             values.remove(index);
@@ -0,0 +1,204 @@
+package io.github.thegatesdev.maple.element.impl.internal;
+
+import io.github.thegatesdev.maple.element.*;
+import io.github.thegatesdev.maple.exception.*;
+import io.github.thegatesdev.maple.io.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+import java.util.stream.*;
+
+/**
+ * A dictionary element reading through multiple dictionaries, resolving each key in the first layer it is present in.
+ * <p>
+ * Dictionaries present at the same key in multiple layers are overlaid as well, when that key is first accessed.
+ * A value that is not a dictionary hides the values in the layers below it.
+ * Operations that need all entries materialize the overlaid entries once.
+ *
+ * @author Timar Karels
+ */
+public final class OverlayDictElement implements DictElement {
+
+    private final DictElement[] layers;
+    private final Map<String, Element> nested = new ConcurrentHashMap<>();
+
+    private volatile DictElement materialized;
+    private volatile long cachedDigest;
+
+
+    private OverlayDictElement(DictElement[] layers) {
+        this.layers = layers;
+    }
+
+    public static DictElement of(DictElement[] layers) {
+        Objects.requireNonNull(layers, "given layers are null");
+
+        for (DictElement layer : layers) Objects.requireNonNull(layer, "given layer is null");
+        if (layers.length == 0) return MemoryDictElement.EMPTY;
+        if (layers.length == 1) return layers[0];
+        // Overlays stay a single layer, their values can hide dictionaries below them that flattening would expose
+        return new OverlayDictElement(layers.clone());
+    }
+
+
+    private Element resolve(String key) {
+        Element result = nested.get(key);
+        if (result != null) return result;
+
+        Element first = null;
+        List<DictElement> dicts = null;
+        for (DictElement layer : layers) {
+            Element value = layer.find(key).orElse(null);
+            if (value == null) continue;
+            if (first == null) {
+                if (!(value instanceof DictElement)) return value;
+                first = value;
+            } else if (value instanceof DictElement dict) {
+                if (dicts == null) {
+                    dicts = new ArrayList<>();
+                    dicts.add((DictElement) first);
+                }
+                dicts.add(dict);
+            } else {
+                break; // Hidden by a value that is not a dictionary
+            }
+        }
+        if (dicts == null) return first;
+
+        result = new OverlayDictElement(dicts.toArray(DictElement[]::new));
+        Element previous = nested.putIfAbsent(key, result);
+        return previous == null ? result : previous; // Other thread was faster, use that one instead.
+    }
+
+    private DictElement materialized() {
+        DictElement result = materialized;
+        if (result == null) {
+            Map<String, Element> entries = new HashMap<>();
+            for (DictElement layer : layers) {
+                for (String key : layer.view().keySet()) {
+                    if (!entries.containsKey(key)) entries.put(key, resolve(key));
+                }
+            }
+            materialized = result = MemoryDictElement.wrap(entries);
+        }
+        return result;
+    }
+
+
+    @Override
+    public Element get(String key) {
+        Objects.requireNonNull(key, "given key is null");
+
+        Element value = resolve(key);
+        if (value == null) throw new ElementKeyNotPresentException(key);
+        return value;
+    }
+
+    @Override
+    public Optional<Element> find(String key) {
+        Objects.requireNonNull(key, "given key is null");
+
+        return Optional.ofNullable(resolve(key));
+    }
+
+    @Override
+    public void each(BiConsumer<String, Element> action) {
+        materialized().each(action);
+    }
+
+    @Override
+    public Map<String, Element> view() {
+        return materialized().view();
+    }
+
+    @Override
+    public DictElement.Builder toBuilder() {
+        return materialized().toBuilder();
+    }
+
+
+    @Override
+    public void each(Consumer<Element> action) {
+        materialized().each(action);
+    }
+
+    @Override
+    public void crawl(Consumer<Element> action) {
+        materialized().crawl(action);
+    }
+
+    @Override
+    public Stream<Element> stream() {
+        return materialized().stream();
+    }
+
+    @Override
+    public ListElement values() {
+        return materialized().values();
+    }
+
+    @Override
+    public int count() {
+        return materialized().count();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (DictElement layer : layers)
+            if (!layer.isEmpty()) return false;
+        return true;
+    }
+
+
+    @Override
+    public void writeTo(Destination destination) {
+        materialized().writeTo(destination);
+    }
+
+    @Override
+    public long digest() {
+        long result = cachedDigest;
+        if (result == 0) cachedDigest = result = ElementDigests.dict(this);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "overlay" + Arrays.toString(layers);
+    }
+
+    @Override
+    public int hashCode() {
+        return materialized().hashCode();
+    }
+
+
+    @Override
+    public boolean contentEquals(DictElement other) {
+        if (equals(other)) return true;
+        return ContentEquality.dicts(this, other);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        return ContentEquality.memoryDicts(this, o);
+    }
+}
+
+/*
+Copyright 2024 Timar Karels
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
@@ -0,0 +1,185 @@
+package io.github.thegatesdev.maple.element.impl.internal;
+
+import io.github.thegatesdev.maple.element.*;
+import io.github.thegatesdev.maple.element.impl.*;
+
+import java.util.*;
+import java.util.function.*;
+import java.util.stream.*;
+
+/**
+ * A list element storing numbers of a single type in a primitive array.
+ * The number elements are only created when they are requested.
+ * <p>
+ * Number elements with a zero value are always represented by {@link IntElement#ZERO},
+ * so a zero value fits in a list of any type.
+ *
+ * @author Timar Karels
+ */
+public abstract sealed class PrimitiveListElement implements ListElement permits IntListElement, LongListElement, DoubleListElement {
+
+    private int cachedHash;
+    private volatile long cachedDigest;
+
+
+    PrimitiveListElement() {
+    }
+
+    /**
+     * Get a primitive list for the first {@code count} given values, or {@code null} if they are not all numbers of the same type.
+     */
+    static PrimitiveListElement of(Element[] values, int count) {
+        Class<?> type = null;
+        for (int i = 0; i < count; i++) {
+            Element value = values[i];
+            Class<?> valueType;
+            if (value instanceof IntElement intElement) {
+                if (intElement.value() == 0) continue;
+                valueType = IntElement.class;
+            } else if (value instanceof LongElement longElement && longElement.value() != 0) {
+                valueType = LongElement.class;
+            } else if (value instanceof DoubleElement doubleElement && doubleElement.value() != 0) {
+                valueType = DoubleElement.class;
+            } else {
+                return null;
+            }
+            if (type == null) type = valueType;
+            else if (type != valueType) return null;
+        }
+
+        if (type == LongElement.class) {
+            long[] longs = new long[count];
+            for (int i = 0; i < longs.length; i++) longs[i] = ((NumberElement) values[i]).getLong();
+            return new LongListElement(longs);
+        }
+        if (type == DoubleElement.class) {
+            double[] doubles = new double[count];
+            for (int i = 0; i < doubles.length; i++) doubles[i] = ((NumberElement) values[i]).getDouble();
+            return new DoubleListElement(doubles);
+        }
+        int[] ints = new int[count];
+        for (int i = 0; i < ints.length; i++) ints[i] = ((IntElement) values[i]).value();
+        return new IntListElement(ints);
+    }
+
+
+    @Override
+    public Optional<Element> find(int index) {
+        if (index < 0 || index >= count()) return Optional.empty();
+        return Optional.of(get(index));
+    }
+
+    @Override
+    public List<Element> view() {
+        return new View();
+    }
+
+    @Override
+    public ListElement.Builder toBuilder() {
+        return MemoryListElement.builder(count()).addAll(toArray());
+    }
+
+    @Override
+    public Element[] toArray() {
+        Element[] result = new Element[count()];
+        for (int i = 0; i < result.length; i++) result[i] = get(i);
+        return result;
+    }
+
+
+    @Override
+    public void each(Consumer<Element> action) {
+        Objects.requireNonNull(action, "given action is null");
+
+        for (int i = 0, count = count(); i < count; i++) action.accept(get(i));
+    }
+
+    @Override
+    public void crawl(Consumer<Element> action) {
+        // Numbers have no descendants
+        each(action);
+    }
+
+    @Override
+    public Stream<Element> stream() {
+        return IntStream.range(0, count()).mapToObj(this::get);
+    }
+
+    @Override
+    public ListElement values() {
+        return this;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return count() == 0;
+    }
+
+
+    @Override
+    public long digest() {
+        long result = cachedDigest;
+        if (result == 0) cachedDigest = result = ElementDigests.list(this);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "list[" + count() + "]";
+    }
+
+    @Override
+    public int hashCode() {
+        int result = cachedHash;
+        if (result == 0) {
+            // Same as the hash of an element array, racy like the hash of a string
+            result = 1;
+            for (int i = 0, count = count(); i < count; i++) result = 31 * result + get(i).hashCode();
+            cachedHash = result;
+        }
+        return result;
+    }
+
+
+    @Override
+    public boolean contentEquals(ListElement other) {
+        if (equals(other)) return true;
+        return ContentEquality.lists(this, other);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        return ContentEquality.memoryLists(this, o);
+    }
+
+
+    private final class View extends AbstractList<Element> implements RandomAccess {
+
+        @Override
+        public Element get(int index) {
+            return PrimitiveListElement.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return count();
+        }
+    }
+}
+
+/*
+Copyright 2024 Timar Karels
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
@@ -0,0 +1,148 @@
+package io.github.thegatesdev.maple.element.impl.internal;
+
+import java.lang.ref.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * The keys of a dictionary and the slots their values are stored at, shared between dictionaries with the same keys.
+ * <p>
+ * Shapes are interned through transitions, adding a key to a shape always results in the same shape.
+ * Dictionaries read from records with the same keys in the same order therefore share a single shape,
+ * and only need to store their values.
+ * <p>
+ * Transitions are weak, and a shape only keeps its parent alive,
+ * so shapes are reclaimed once no dictionary uses them or one of the shapes built on them.
+ * Each read may only create a limited amount of new shapes, using an {@link Allowance}.
+ * Once that is used up, dictionaries in the same read with keys that were not seen before store their own keys,
+ * later reads get a new allowance.
+ *
+ * @author Timar Karels
+ */
+final class Shape {
+
+    static final Shape ROOT = new Shape(null, new String[0]);
+
+    static final int MAX_KEYS = 64;
+    private static final int MAX_NEW_SHAPES = 4096;
+
+    // Cleared transitions, removed from their parent the next time a shape is created
+    private static final ReferenceQueue<Shape> cleared = new ReferenceQueue<>();
+
+    private final Shape parent; // Keeps the shapes this shape was built on alive, so it stays reachable
+    private final String[] keys;
+    // Open addressing table, mapping the keys to their slot
+    private final String[] table;
+    private final byte[] tableSlots;
+    private final ConcurrentHashMap<String, Transition> transitions = new ConcurrentHashMap<>();
+
+
+    private Shape(Shape parent, String[] keys) {
+        this.parent = parent;
+        this.keys = keys;
+        int capacity = Integer.highestOneBit(Math.max(1, keys.length) * 2) * 2;
+        this.table = new String[capacity];
+        this.tableSlots = new byte[capacity];
+        for (int slot = 0; slot < keys.length; slot++) {
+            int i = keys[slot].hashCode() & (capacity - 1);
+            while (table[i] != null) i = (i + 1) & (capacity - 1);
+            table[i] = keys[slot];
+            tableSlots[i] = (byte) slot;
+        }
+    }
+
+
+    /**
+     * Get the slot for the given key, or {@code -1} if this shape does not contain the key.
+     */
+    int slot(String key) {
+        String[] table = this.table;
+        int mask = table.length - 1;
+        for (int i = key.hashCode() & mask; ; i = (i + 1) & mask) {
+            String candidate = table[i];
+            if (candidate == null) return -1;
+            if (candidate == key || candidate.equals(key)) return tableSlots[i];
+        }
+    }
+
+    /**
+     * Get the shape with the given key added after the keys in this shape,
+     * or {@code null} if the key is already present or a new shape is not allowed by the given allowance.
+     */
+    Shape withKey(String key, Allowance allowance) {
+        Transition transition = transitions.get(key);
+        Shape result = transition == null ? null : transition.get();
+        if (result != null) return result;
+        if (keys.length == MAX_KEYS || allowance.left == 0 || slot(key) != -1) return null;
+        allowance.left--;
+        removeCleared();
+
+        String[] newKeys = Arrays.copyOf(keys, keys.length + 1);
+        newKeys[keys.length] = key;
+        Shape created = new Shape(this, newKeys);
+        Transition present = transitions.compute(key, (ignored, current) -> {
+            if (current != null && current.get() != null) return current;
+            return new Transition(this, key, created);
+        });
+        result = present.get();
+        return result != null ? result : created; // Other thread was faster, use that one instead.
+    }
+
+    int size() {
+        return keys.length;
+    }
+
+    String key(int slot) {
+        return keys[slot];
+    }
+
+
+    private static void removeCleared() {
+        for (Reference<? extends Shape> reference; (reference = cleared.poll()) != null; ) {
+            Transition transition = (Transition) reference;
+            transition.parent.transitions.remove(transition.key, transition);
+        }
+    }
+
+
+    /**
+     * The amount of new shapes a single read may still create.
+     * Reads of objects with data dependent keys, like maps keyed by id, would otherwise create a shape for every object.
+     */
+    static final class Allowance {
+
+        private int left = MAX_NEW_SHAPES;
+    }
+
+    /**
+     * A weak transition to the shape with a key added, remembering where it is stored so it can be removed once cleared.
+     */
+    private static final class Transition extends WeakReference<Shape> {
+
+        private final Shape parent;
+        private final String key;
+
+
+        private Transition(Shape parent, String key, Shape shape) {
+            super(shape, cleared);
+            this.parent = parent;
+            this.key = key;
+        }
+    }
+}
+
+/*
+Copyright 2024 Timar Karels
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
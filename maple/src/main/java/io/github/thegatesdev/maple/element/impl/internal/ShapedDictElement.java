@@ -0,0 +1,231 @@
+package io.github.thegatesdev.maple.element.impl.internal;
+
+import io.github.thegatesdev.maple.annotation.internal.*;
+import io.github.thegatesdev.maple.element.*;
+import io.github.thegatesdev.maple.exception.*;
+import io.github.thegatesdev.maple.io.*;
+
+import java.util.*;
+import java.util.function.*;
+import java.util.stream.*;
+
+/**
+ * A dictionary element storing only its values, with the keys in a {@link Shape} shared with other dictionaries.
+ *
+ * @author Timar Karels
+ */
+@ValueClassCandidate
+public final class ShapedDictElement implements DictElement {
+
+    private final Shape shape;
+    private final Element[] values;
+    private final int count;
+    private int cachedHash;
+    private volatile long cachedDigest;
+
+
+    /**
+     * The values array may be longer than the shape, the slots after its keys are unused.
+     */
+    ShapedDictElement(Shape shape, Element[] values) {
+        this.shape = shape;
+        this.values = values;
+        this.count = shape.size();
+    }
+
+
+    private Element lookup(String key) {
+        int slot = shape.slot(key);
+        return slot == -1 ? null : values[slot];
+    }
+
+
+    @Override
+    public Element get(String key) {
+        Objects.requireNonNull(key, "given key is null");
+
+        Element value = lookup(key);
+        if (value == null) throw new ElementKeyNotPresentException(key);
+        return value;
+    }
+
+    @Override
+    public Optional<Element> find(String key) {
+        Objects.requireNonNull(key, "given key is null");
+
+        return Optional.ofNullable(lookup(key));
+    }
+
+    @Override
+    public void each(BiConsumer<String, Element> action) {
+        Objects.requireNonNull(action, "given action is null");
+
+        for (int slot = 0; slot < count; slot++) action.accept(shape.key(slot), values[slot]);
+    }
+
+    @Override
+    public Map<String, Element> view() {
+        return new View();
+    }
+
+    @Override
+    public DictElement.Builder toBuilder() {
+        DictElement.Builder builder = MemoryDictElement.builder(count);
+        each(builder::put);
+        return builder;
+    }
+
+
+    @Override
+    public void each(Consumer<Element> action) {
+        Objects.requireNonNull(action, "given action is null");
+
+        for (int slot = 0; slot < count; slot++) action.accept(values[slot]);
+    }
+
+    @Override
+    public void crawl(Consumer<Element> action) {
+        Objects.requireNonNull(action, "given action is null");
+
+        for (int slot = 0; slot < count; slot++) {
+            Element value = values[slot];
+            if (value instanceof ElementCollection collection) {
+                collection.crawl(action);
+            }
+            action.accept(value);
+        }
+    }
+
+    @Override
+    public Stream<Element> stream() {
+        return Arrays.stream(values, 0, count);
+    }
+
+    @Override
+    public ListElement values() {
+        // The values are never modified, so the list can share them
+        return new MemoryListElement(values, count);
+    }
+
+    @Override
+    public int count() {
+        return count;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+
+    @Override
+    public void writeTo(Destination destination) {
+        destination.openObject(count);
+        for (int slot = 0; slot < count; slot++) {
+            destination.name(shape.key(slot));
+            destination.value(values[slot]);
+        }
+        destination.closeObject();
+    }
+
+    @Override
+    public long digest() {
+        long result = cachedDigest;
+        if (result == 0) cachedDigest = result = ElementDigests.dict(this);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "dict{" + count + "}";
+    }
+
+    @Override
+    public int hashCode() {
+        int result = cachedHash;
+        if (result == 0) {
+            // Same as the hash of a map, racy like the hash of a string
+            for (int slot = 0; slot < count; slot++) result += shape.key(slot).hashCode() ^ values[slot].hashCode();
+            cachedHash = result;
+        }
+        return result;
+    }
+
+
+    @Override
+    public boolean contentEquals(DictElement other) {
+        if (equals(other)) return true;
+        return ContentEquality.dicts(this, other);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o instanceof ShapedDictElement that && shape == that.shape) return Arrays.equals(values, 0, count, that.values, 0, count);
+        return ContentEquality.memoryDicts(this, o);
+    }
+
+
+    private final class View extends AbstractMap<String, Element> {
+
+        @Override
+        public Element get(Object key) {
+            return key instanceof String string ? lookup(string) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public int size() {
+            return count;
+        }
+
+        @Override
+        public Set<Entry<String, Element>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, Element>> iterator() {
+                    return new Iterator<>() {
+                        private int slot;
+
+                        @Override
+                        public boolean hasNext() {
+                            return slot < count;
+                        }
+
+                        @Override
+                        public Entry<String, Element> next() {
+                            if (!hasNext()) throw new NoSuchElementException();
+                            int current = slot++;
+                            return Map.entry(shape.key(current), values[current]);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return count;
+                }
+            };
+        }
+    }
+}
+
+/*
+Copyright 2024 Timar Karels
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
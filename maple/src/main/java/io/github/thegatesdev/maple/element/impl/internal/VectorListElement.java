@@ -0,0 +1,663 @@
+package io.github.thegatesdev.maple.element.impl.internal;
+
+import io.github.thegatesdev.maple.element.*;
+import io.github.thegatesdev.maple.io.*;
+
+import java.util.*;
+import java.util.function.*;
+import java.util.stream.*;
+
+/**
+ * A list element backed by a relaxed radix balanced tree, a trie of up to 32 wide nodes with the last values kept in a separate tail.
+ * <p>
+ * Every branch stores the cumulative sizes of its children, so nodes do not need to be full,
+ * and two trees can be concatenated by only rebuilding the nodes along the seam between them.
+ * Builders created from this list share its nodes, appending only touches the tail,
+ * setting a value only copies the nodes on the path to it,
+ * and adding another vector or removing a value from the middle splits and concatenates trees.
+ * Nodes created by a builder are owned by it and edited in place, until the builder builds an element.
+ *
+ * @author Timar Karels
+ */
+public final class VectorListElement implements ListElement {
+
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    // How many more nodes than the minimum a concatenated branch may have, before its children are redistributed
+    private static final int EXTRAS = 2;
+
+    private static final Node EMPTY_NODE = new Node(null, new Object[0], new int[0]);
+    private static final Object[] EMPTY_TAIL = new Object[0];
+    // Not the shared empty list, so that builders created from it are persistent as well
+    private static final VectorListElement EMPTY = new VectorListElement(0, BITS, EMPTY_NODE, EMPTY_TAIL);
+
+    private final int count;
+    private final int shift;
+    private final Node root;
+    private final Object[] tail;
+    private int cachedHash;
+    private volatile long cachedDigest;
+
+
+    private VectorListElement(int count, int shift, Node root, Object[] tail) {
+        this.count = count;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+    }
+
+    public static ListElement.Builder builder() {
+        return EMPTY.toBuilder();
+    }
+
+
+    /**
+     * Find the child of the given branch holding the value at the given index.
+     */
+    private static int slot(Node node, int level, int index) {
+        // Children hold at most 1 << level values, so this guess is never past the right child
+        int slot = index >>> Math.min(level, Integer.SIZE - 1);
+        while (node.sizes[slot] <= index) slot++;
+        return slot;
+    }
+
+    private static Object valueAt(Node node, int level, int index) {
+        for (; level > 0; level -= BITS) {
+            int slot = slot(node, level, index);
+            if (slot > 0) index -= node.sizes[slot - 1];
+            node = (Node) node.array[slot];
+        }
+        return node.array[index];
+    }
+
+    private static int size(Node node) {
+        if (node.sizes == null) return node.array.length;
+        return node.sizes.length == 0 ? 0 : node.sizes[node.sizes.length - 1];
+    }
+
+    private static void eachLeaf(Node node, int level, Consumer<Object[]> action) {
+        if (level == 0) {
+            action.accept(node.array);
+            return;
+        }
+        for (Object child : node.array) eachLeaf((Node) child, level - BITS, action);
+    }
+
+    private List<Object[]> leaves() {
+        List<Object[]> result = new ArrayList<>((count >>> BITS) + 1);
+        eachLeaf(root, shift, result::add);
+        result.add(tail);
+        return result;
+    }
+
+
+    @Override
+    public Element get(int index) {
+        Objects.checkIndex(index, count);
+
+        int treeCount = count - tail.length;
+        if (index >= treeCount) return (Element) tail[index - treeCount];
+        return (Element) valueAt(root, shift, index);
+    }
+
+    @Override
+    public Optional<Element> find(int index) {
+        if (index < 0 || index >= count) return Optional.empty();
+        return Optional.of(get(index));
+    }
+
+    @Override
+    public List<Element> view() {
+        return new View();
+    }
+
+    @Override
+    public ListElement.Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    @Override
+    public Element[] toArray() {
+        Element[] result = new Element[count];
+        int position = 0;
+        for (Object[] leaf : leaves()) {
+            System.arraycopy(leaf, 0, result, position, leaf.length);
+            position += leaf.length;
+        }
+        return result;
+    }
+
+
+    @Override
+    public void each(Consumer<Element> action) {
+        Objects.requireNonNull(action, "given action is null");
+
+        eachLeaf(root, shift, leaf -> {
+            for (Object value : leaf) action.accept((Element) value);
+        });
+        for (Object value : tail) action.accept((Element) value);
+    }
+
+    @Override
+    public void crawl(Consumer<Element> action) {
+        Objects.requireNonNull(action, "given action is null");
+
+        each(value -> {
+            if (value instanceof ElementCollection collection) {
+                collection.crawl(action);
+            }
+            action.accept(value);
+        });
+    }
+
+    @Override
+    public Stream<Element> stream() {
+        return view().stream();
+    }
+
+    @Override
+    public ListElement values() {
+        return this;
+    }
+
+    @Override
+    public int count() {
+        return count;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+
+    @Override
+    public void writeTo(Destination destination) {
+        destination.openArray(count);
+        each(destination::value);
+        destination.closeArray();
+    }
+
+    @Override
+    public long digest() {
+        long result = cachedDigest;
+        if (result == 0) cachedDigest = result = ElementDigests.list(this);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "list[" + count + "]";
+    }
+
+    @Override
+    public int hashCode() {
+        int result = cachedHash;
+        if (result == 0) {
+            // Computed when first needed, racy like the hash of a string
+            int[] hash = {1};
+            each(value -> hash[0] = 31 * hash[0] + value.hashCode());
+            result = hash[0];
+            cachedHash = result;
+        }
+        return result;
+    }
+
+
+    @Override
+    public boolean contentEquals(ListElement other) {
+        if (equals(other)) return true;
+        return ContentEquality.lists(this, other);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof VectorListElement that)) return ContentEquality.memoryLists(this, o);
+        if (count != that.count || hashCode() != that.hashCode()) return false;
+
+        List<Object[]> leaves = leaves(), otherLeaves = that.leaves();
+        int leaf = 0, otherLeaf = 0, offset = 0, otherOffset = 0;
+        while (leaf < leaves.size()) {
+            Object[] array = leaves.get(leaf);
+            Object[] other = otherLeaves.get(otherLeaf);
+            if (offset == 0 && otherOffset == 0 && array == other) {
+                // Shared by both lists
+                leaf++;
+                otherLeaf++;
+                continue;
+            }
+            if (!array[offset].equals(other[otherOffset])) return false;
+            if (++offset == array.length) {
+                leaf++;
+                offset = 0;
+            }
+            if (++otherOffset == other.length) {
+                otherLeaf++;
+                otherOffset = 0;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * A leaf holding values, or a branch holding child nodes and their cumulative sizes.
+     */
+    private static final class Node {
+
+        private final Object edit;
+        private final Object[] array;
+        private final int[] sizes; // Null for a leaf
+
+
+        private Node(Object edit, Object[] array, int[] sizes) {
+            this.edit = edit;
+            this.array = array;
+            this.sizes = sizes;
+        }
+
+        private Node(Object edit, Object[] array) {
+            this(edit, array, null);
+        }
+    }
+
+    private final class View extends AbstractList<Element> implements RandomAccess {
+
+        @Override
+        public Element get(int index) {
+            return VectorListElement.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return count;
+        }
+
+        @Override
+        public void forEach(Consumer<? super Element> action) {
+            Objects.requireNonNull(action, "given action is null");
+            each(action::accept);
+        }
+    }
+
+
+    public static final class Builder implements ListElement.Builder {
+
+        // Nodes created with this token belong to this builder, and can be edited in place
+        private Object edit = new Object();
+        private int treeCount;
+        private int shift;
+        private Node root;
+        private Object[] tail;
+        private int tailSize;
+
+
+        private Builder(VectorListElement source) {
+            this.treeCount = source.count - source.tail.length;
+            this.shift = source.shift;
+            this.root = source.root;
+            // The tail is small, and always edited by appending, so it is copied right away
+            this.tail = Arrays.copyOf(source.tail, WIDTH);
+            this.tailSize = source.tail.length;
+        }
+
+
+        private Node editable(Node node) {
+            if (node.edit == edit) return node;
+            return new Node(edit, node.array.clone(), node.sizes == null ? null : node.sizes.clone());
+        }
+
+        private Node branch(Object[] children) {
+            int[] sizes = new int[children.length];
+            int size = 0;
+            for (int i = 0; i < children.length; i++) sizes[i] = size += size((Node) children[i]);
+            return new Node(edit, children, sizes);
+        }
+
+        private Node newPath(int level, Node node) {
+            if (level == 0) return node;
+            return branch(new Object[]{newPath(level - BITS, node)});
+        }
+
+        /**
+         * Use the given tree as the root, removing branches with a single child from the top.
+         */
+        private void setRoot(Node node, int level) {
+            while (level > BITS && node.array.length == 1) {
+                node = (Node) node.array[0];
+                level -= BITS;
+            }
+            root = node;
+            shift = level;
+        }
+
+
+        private Node pushLeaf(int level, Node node, Node leaf) {
+            int children = node.array.length;
+            if (level > BITS && children > 0) {
+                Node child = pushLeaf(level - BITS, (Node) node.array[children - 1], leaf);
+                if (child != null) {
+                    Node result = editable(node);
+                    result.array[children - 1] = child;
+                    result.sizes[children - 1] += leaf.array.length;
+                    return result;
+                }
+            }
+            if (children == WIDTH) return null; // Full, the leaf goes into the next node
+            Object[] array = Arrays.copyOf(node.array, children + 1);
+            array[children] = newPath(level - BITS, leaf);
+            int[] sizes = Arrays.copyOf(node.sizes, children + 1);
+            sizes[children] = size(node) + leaf.array.length;
+            return new Node(edit, array, sizes);
+        }
+
+        private Node popLeaf(int level, Node node) {
+            int last = node.array.length - 1;
+            if (level > BITS) {
+                Node lastChild = (Node) node.array[last];
+                Node child = popLeaf(level - BITS, lastChild);
+                if (child != null) {
+                    Node result = editable(node);
+                    result.array[last] = child;
+                    result.sizes[last] -= size(lastChild) - size(child);
+                    return result;
+                }
+            }
+            if (last == 0) return null; // Empty, remove it from its parent
+            return new Node(edit, Arrays.copyOf(node.array, last), Arrays.copyOf(node.sizes, last));
+        }
+
+        private Node set(int level, Node node, int index, Element element) {
+            Node result = editable(node);
+            if (level == 0) {
+                result.array[index] = element;
+            } else {
+                int slot = slot(node, level, index);
+                int offset = slot == 0 ? 0 : node.sizes[slot - 1];
+                result.array[slot] = set(level - BITS, (Node) node.array[slot], index - offset, element);
+            }
+            return result;
+        }
+
+        /**
+         * Get the tree holding only the first values of the given tree.
+         */
+        private Node take(int level, Node node, int keep) {
+            if (level == 0) return keep == node.array.length ? node : new Node(edit, Arrays.copyOf(node.array, keep));
+            int slot = slot(node, level, keep - 1);
+            int offset = slot == 0 ? 0 : node.sizes[slot - 1];
+            Object[] array = Arrays.copyOf(node.array, slot + 1);
+            array[slot] = take(level - BITS, (Node) node.array[slot], keep - offset);
+            int[] sizes = Arrays.copyOf(node.sizes, slot + 1);
+            sizes[slot] = keep;
+            return new Node(edit, array, sizes);
+        }
+
+        /**
+         * Get the tree holding the given tree without its first values.
+         */
+        private Node drop(int level, Node node, int skip) {
+            if (level == 0) return skip == 0 ? node : new Node(edit, Arrays.copyOfRange(node.array, skip, node.array.length));
+            int slot = slot(node, level, skip);
+            int offset = slot == 0 ? 0 : node.sizes[slot - 1];
+            Object[] array = Arrays.copyOfRange(node.array, slot, node.array.length);
+            array[0] = drop(level - BITS, (Node) node.array[slot], skip - offset);
+            int[] sizes = new int[array.length];
+            for (int i = 0; i < sizes.length; i++) sizes[i] = node.sizes[slot + i] - skip;
+            return new Node(edit, array, sizes);
+        }
+
+
+        /**
+         * Concatenate two non-empty trees, and use the result as the root.
+         */
+        private void concat(Node left, int leftLevel, Node right, int rightLevel) {
+            // The lower tree is lifted with single child branches, which are merged away along the seam
+            for (; leftLevel < rightLevel; leftLevel += BITS) left = branch(new Object[]{left});
+            for (; rightLevel < leftLevel; rightLevel += BITS) right = branch(new Object[]{right});
+
+            Node[] merged = merge(leftLevel, left, right);
+            if (merged.length == 1) setRoot(merged[0], leftLevel);
+            else setRoot(branch(merged), leftLevel + BITS);
+        }
+
+        /**
+         * Merge two nodes of the same level into one or two nodes of that level.
+         * Only the rightmost children of the left node and the leftmost children of the right node are rebuilt.
+         */
+        private Node[] merge(int level, Node left, Node right) {
+            if (level == 0) {
+                int length = left.array.length + right.array.length;
+                if (length > WIDTH) return new Node[]{left, right};
+                Object[] array = Arrays.copyOf(left.array, length);
+                System.arraycopy(right.array, 0, array, left.array.length, right.array.length);
+                return new Node[]{new Node(edit, array)};
+            }
+
+            int leftCount = left.array.length - 1;
+            int rightCount = right.array.length - 1;
+            Node[] middle = merge(level - BITS, (Node) left.array[leftCount], (Node) right.array[0]);
+            Node[] children = new Node[leftCount + middle.length + rightCount];
+            System.arraycopy(left.array, 0, children, 0, leftCount);
+            System.arraycopy(middle, 0, children, leftCount, middle.length);
+            System.arraycopy(right.array, 1, children, leftCount + middle.length, rightCount);
+
+            children = rebalance(level - BITS, children);
+            if (children.length <= WIDTH) return new Node[]{branch(children)};
+            return new Node[]{
+                branch(Arrays.copyOf(children, WIDTH, Object[].class)),
+                branch(Arrays.copyOfRange(children, WIDTH, children.length, Object[].class))
+            };
+        }
+
+        /**
+         * Redistribute the contents of the given nodes over fewer nodes,
+         * if there are more than {@link #EXTRAS} nodes above the minimum needed to hold them.
+         */
+        private Node[] rebalance(int level, Node[] nodes) {
+            int length = nodes.length;
+            int[] counts = new int[length];
+            int total = 0;
+            for (int i = 0; i < length; i++) total += counts[i] = nodes[i].array.length;
+            int minimum = (total + WIDTH - 1) / WIDTH;
+            if (length <= minimum + EXTRAS) return nodes;
+
+            // Plan the new node sizes, spreading the contents of the first node that is not full over the nodes after it
+            int i = 0;
+            while (length > minimum + EXTRAS) {
+                while (counts[i] == WIDTH) i++;
+                int remaining = counts[i];
+                do {
+                    int size = Math.min(remaining + counts[i + 1], WIDTH);
+                    remaining += counts[i + 1] - size;
+                    counts[i++] = size;
+                } while (remaining > 0);
+                System.arraycopy(counts, i + 1, counts, i, length - i - 1);
+                length--;
+                i--;
+            }
+
+            // Fill the planned nodes, reusing the nodes that keep their contents
+            Node[] result = new Node[length];
+            int source = 0, offset = 0;
+            for (int target = 0; target < length; target++) {
+                int size = counts[target];
+                if (offset == 0 && nodes[source].array.length == size) {
+                    result[target] = nodes[source++];
+                    continue;
+                }
+                Object[] array = new Object[size];
+                int filled = 0;
+                while (filled < size) {
+                    Object[] from = nodes[source].array;
+                    int copied = Math.min(size - filled, from.length - offset);
+                    System.arraycopy(from, offset, array, filled, copied);
+                    filled += copied;
+                    offset += copied;
+                    if (offset == from.length) {
+                        source++;
+                        offset = 0;
+                    }
+                }
+                result[target] = level == 0 ? new Node(edit, array) : branch(array);
+            }
+            return result;
+        }
+
+
+        private void pushTail() {
+            Node leaf = new Node(edit, tailSize == WIDTH ? tail : Arrays.copyOf(tail, tailSize));
+            Node result = pushLeaf(shift, root, leaf);
+            if (result != null) {
+                root = result;
+            } else {
+                // The tree is full, so it grows a level
+                root = branch(new Object[]{root, newPath(shift, leaf)});
+                shift += BITS;
+            }
+            treeCount += tailSize;
+            tail = new Object[WIDTH];
+            tailSize = 0;
+        }
+
+        private void pullTail() {
+            Node leaf = root;
+            for (int level = shift; level > 0; level -= BITS) leaf = (Node) leaf.array[leaf.array.length - 1];
+            Node result = popLeaf(shift, root);
+            if (result == null) setRoot(EMPTY_NODE, BITS);
+            else setRoot(result, shift);
+            treeCount -= leaf.array.length;
+            tail = Arrays.copyOf(leaf.array, WIDTH);
+            tailSize = leaf.array.length;
+        }
+
+        private void append(Element element) {
+            if (tailSize == WIDTH) pushTail();
+            tail[tailSize++] = element;
+        }
+
+        private Object elementAt(int index) {
+            if (index >= treeCount) return tail[index - treeCount];
+            return valueAt(root, shift, index);
+        }
+
+
+        @Override
+        public ListElement build() {
+            if (treeCount + tailSize == 0) return EMPTY;
+            if (tailSize == 0) pullTail(); // Built lists always have values in their tail
+            // Edits after this copy the nodes they touch, so the element is not affected
+            edit = new Object();
+            return new VectorListElement(treeCount + tailSize, shift, root, Arrays.copyOf(tail, tailSize));
+        }
+
+
+        @Override
+        public ListElement.Builder add(Element element) {
+            Objects.requireNonNull(element, "given element is null");
+
+            append(element);
+            return this;
+        }
+
+        @Override
+        public ListElement.Builder addAll(ListElement element) {
+            Objects.requireNonNull(element, "given list element is null");
+
+            if (!(element instanceof VectorListElement vector) || vector.count == vector.tail.length) {
+                element.each(this::append);
+                return this;
+            }
+            int vectorTreeCount = vector.count - vector.tail.length;
+            if (treeCount + tailSize == 0) {
+                // Adopt the whole vector, sharing its nodes
+                root = vector.root;
+                shift = vector.shift;
+            } else {
+                if (tailSize > 0) pushTail();
+                concat(root, shift, vector.root, vector.shift);
+            }
+            treeCount += vectorTreeCount;
+            tail = Arrays.copyOf(vector.tail, WIDTH);
+            tailSize = vector.tail.length;
+            return this;
+        }
+
+        @Override
+        public ListElement.Builder addAll(List<Element> elements) {
+            Objects.requireNonNull(elements, "given element list is null");
+
+            for (Element element : elements) add(element);
+            return this;
+        }
+
+        @Override
+        public ListElement.Builder addAll(Element[] elements) {
+            Objects.requireNonNull(elements, "given array is null");
+
+            return addAll(Arrays.asList(elements));
+        }
+
+        @Override
+        public ListElement.Builder set(int index, Element element) {
+            Objects.checkIndex(index, treeCount + tailSize);
+            Objects.requireNonNull(element, "given element is null");
+
+            if (index >= treeCount) tail[index - treeCount] = element;
+            else root = set(shift, root, index, element);
+            return this;
+        }
+
+        @Override
+        public ListElement.Builder remove(int index) {
+            Objects.checkIndex(index, treeCount + tailSize);
+
+            if (index >= treeCount) {
+                int tailIndex = index - treeCount;
+                System.arraycopy(tail, tailIndex + 1, tail, tailIndex, tailSize - tailIndex - 1);
+                tail[--tailSize] = null;
+                return this;
+            }
+            // Split the tree around the index, and concatenate the parts before and after it
+            Node before = index == 0 ? null : take(shift, root, index);
+            Node after = index == treeCount - 1 ? null : drop(shift, root, index + 1);
+            if (before == null && after == null) setRoot(EMPTY_NODE, BITS);
+            else if (before == null) setRoot(after, shift);
+            else if (after == null) setRoot(before, shift);
+            else concat(before, shift, after, shift);
+            treeCount--;
+            return this;
+        }
+
+        @Override
+        public ListElement.Builder remove(Element element) {
+            Objects.requireNonNull(element, "given element is null");
+
+            for (int i = 0, count = treeCount + tailSize; i < count; i++)
+                if (element.equals(elementAt(i))) return remove(i);
+            return this;
+        }
+
+        @Override
+        public List<Element> view() {
+            return build().view();
+        }
+    }
+}
+
+/*
+Copyright 2024 Timar Karels
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
@@ -0,0 +1,98 @@
+package io.github.thegatesdev.maple.element.impl.internal;
+
+import io.github.thegatesdev.maple.element.*;
+import io.github.thegatesdev.maple.element.impl.*;
+
+import java.lang.ref.*;
+import java.util.*;
+
+/**
+ * An element interner keeping weak references to the interned elements.
+ * <p>
+ * The elements are spread over stripes by their hash, each with their own lock,
+ * so threads interning different values rarely wait on each other.
+ *
+ * @author Timar Karels
+ */
+public final class WeakElementInterner implements ElementInterner {
+
+    private static final int STRIPES = 16;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+
+    private WeakElementInterner() {
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new Stripe();
+    }
+
+    public static ElementInterner create() {
+        return new WeakElementInterner();
+    }
+
+
+    private Stripe stripe(Element element) {
+        int hash = element.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+
+
+    @Override
+    public Element intern(Element element) {
+        Objects.requireNonNull(element, "given element is null");
+
+        // Collections are too large to compare, booleans and null are already unique
+        if (element instanceof ElementCollection || element instanceof BoolElement || element instanceof NullElement)
+            return element;
+
+        Stripe stripe = stripe(element);
+        synchronized (stripe) {
+            WeakReference<Element> reference = stripe.elements.get(element);
+            Element interned = reference == null ? null : reference.get();
+            if (interned != null) return interned;
+            // The value references the key weakly too, a strong reference would keep the key alive
+            stripe.elements.put(element, new WeakReference<>(element));
+            return element;
+        }
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.elements.size();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.elements.clear();
+            }
+        }
+    }
+
+
+    private static final class Stripe {
+
+        private final Map<Element, WeakReference<Element>> elements = new WeakHashMap<>();
+    }
+}
+/*
+Copyright 2024 Timar Karels
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
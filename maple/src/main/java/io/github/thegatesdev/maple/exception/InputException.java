@@ -0,0 +1,28 @@
+package io.github.thegatesdev.maple.exception;
+
+/**
+ * This exception is a runtime wrapper for any raised IO exceptions while reading data.
+ */
+public final class InputException extends RuntimeException {
+
+    private static final String MESSAGE = "Input failed: IO error";
+
+
+    /**
+     * Create the exception with the given cause.
+     *
+     * @param cause the wrapped exception
+     */
+    public InputException(Throwable cause) {
+        super(MESSAGE, cause);
+    }
+
+    /**
+     * Create the exception with the given message.
+     *
+     * @param message the message
+     */
+    public InputException(String message) {
+        super(message);
+    }
+}
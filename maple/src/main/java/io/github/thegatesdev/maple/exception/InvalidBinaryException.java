@@ -0,0 +1,37 @@
+package io.github.thegatesdev.maple.exception;
+
+/**
+ * This exception is raised when invalid binary data is written or read.
+ */
+public final class InvalidBinaryException extends RuntimeException {
+    private static final String MESSAGE = "Invalid binary data";
+
+
+    /**
+     * Create the exception with the given message.
+     *
+     * @param message the detail message
+     */
+    public InvalidBinaryException(String message) {
+        super(message);
+    }
+
+    /**
+     * Create the exception with the given message and cause.
+     *
+     * @param message the detail message
+     * @param cause   the cause
+     */
+    public InvalidBinaryException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    /**
+     * Create the exception with the given cause.
+     *
+     * @param cause the cause
+     */
+    public InvalidBinaryException(Throwable cause) {
+        super(MESSAGE, cause);
+    }
+}
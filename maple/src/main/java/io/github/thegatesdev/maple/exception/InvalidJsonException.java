@@ -4,8 +4,6 @@ package io.github.thegatesdev.maple.exception;
  * This exception is raised when invalid JSON data is written or read.
  */
 public final class InvalidJsonException extends RuntimeException {
-    // TODO rename this, only used for invalid json output...
-
     private static final String MESSAGE = "Invalid JSON";
 
 
@@ -0,0 +1,68 @@
+package io.github.thegatesdev.maple.io;
+
+import io.github.thegatesdev.maple.io.buffer.*;
+
+/**
+ * Manages the reuse of temporary buffers, so short-lived writers do not have to allocate their own.
+ * <p>
+ * Buffers are acquired before use and released when no longer needed.
+ * A released buffer may be handed out again, so it must not be used after releasing it.
+ *
+ * @author Timar Karels
+ */
+public interface BufferRecycler {
+
+
+    /**
+     * Get the recycler keeping a few buffers for each thread.
+     * This recycler has no synchronization cost, but keeps buffers alive for every thread that used it.
+     *
+     * @return the shared thread local recycler
+     */
+    static BufferRecycler threadLocal() {
+        return ThreadLocalBufferRecycler.INSTANCE;
+    }
+
+    /**
+     * Get a recycler keeping a bounded amount of buffers, shared between all threads.
+     * This recycler suits many short-lived threads, like virtual threads.
+     *
+     * @param capacity the maximum amount of buffers to keep
+     * @return the new pooled recycler
+     */
+    static BufferRecycler pooled(int capacity) {
+        return PooledBufferRecycler.create(capacity);
+    }
+
+
+    /**
+     * Acquire a character buffer of at least the given length.
+     *
+     * @param minLength the minimum length of the buffer
+     * @return a recycled buffer, or a new one if none is available
+     */
+    char[] acquire(int minLength);
+
+    /**
+     * Release a character buffer, allowing it to be reused.
+     *
+     * @param buffer the buffer to release
+     */
+    void release(char[] buffer);
+}
+
+/*
+Copyright 2024 Timar Karels
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
@@ -1,7 +1,9 @@
 package io.github.thegatesdev.maple.io;
 
+import io.github.thegatesdev.maple.io.binary.impl.*;
 import io.github.thegatesdev.maple.io.json.impl.*;
 
+import java.io.*;
 import java.math.*;
 
 /**
@@ -22,6 +24,50 @@ public interface Destination {
         return JsonDestination.create(output);
     }
 
+    /**
+     * Get a data destination that writes JSON data to the given output,
+     * using temporary buffers from the given recycler.
+     * The buffers are released each time a root value is completed.
+     *
+     * @param output   the output to write to
+     * @param recycler the recycler to acquire buffers from
+     * @return the new JSON destination
+     */
+    static Destination json(Output output, BufferRecycler recycler) {
+        return JsonDestination.create(output, recycler);
+    }
+
+    /**
+     * Get a data destination that writes JSON data to the given output,
+     * copying collections from the given cache when they were written before.
+     *
+     * @param output the output to write to
+     * @param cache  the cache to store serialized collections in
+     * @return the new JSON destination
+     * @see SerializationCache
+     */
+    static Destination json(Output output, SerializationCache cache) {
+        return JsonDestination.create(output, cache);
+    }
+
+    /**
+     * Get a data destination that writes the compact Maple binary format to the given output stream.
+     * <p>
+     * Every kind of value is stored with its exact type, so numbers read back as the same number type.
+     * Objects and arrays opened with a size hint are stored with their member count, which lets readers prepare for their members.
+     * They are buffered until they are closed, so the stored count is the actual amount of members, even if the hint was wrong.
+     * Objects and arrays opened without a size hint are streamed.
+     * The data is passed to the stream each time a root value is complete.
+     *
+     * @param stream the stream to write to
+     * @return the new binary destination
+     * @throws NullPointerException if the given stream is null
+     * @see Source#binary(InputStream)
+     */
+    static Destination binary(OutputStream stream) {
+        return BinaryDestination.create(stream);
+    }
+
 
     /**
      * Create and enter a new object scope.
@@ -34,6 +80,18 @@ public interface Destination {
      */
     void openObject();
 
+    /**
+     * Create and enter a new object scope, expecting the given amount of name-value pairs.
+     * The size hint allows destinations to prepare for the entries, it is not enforced.
+     *
+     * @param sizeHint the expected amount of name-value pairs, or a negative value if unknown
+     * @throws IllegalStateException if a name was expected
+     * @see #openObject()
+     */
+    default void openObject(int sizeHint) {
+        openObject();
+    }
+
     /**
      * Close the current object scope, and enter the previous scope.
      *
@@ -52,6 +110,18 @@ public interface Destination {
      */
     void openArray();
 
+    /**
+     * Create and enter a new array scope, expecting the given amount of values.
+     * The size hint allows destinations to prepare for the values, it is not enforced.
+     *
+     * @param sizeHint the expected amount of values, or a negative value if unknown
+     * @throws IllegalStateException if a name was expected
+     * @see #openArray()
+     */
+    default void openArray(int sizeHint) {
+        openArray();
+    }
+
     /**
      * Close the current array scope, and enter the previous scope.
      *
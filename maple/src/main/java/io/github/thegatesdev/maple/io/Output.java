@@ -20,6 +20,17 @@ public interface Output extends AutoCloseable {
         return WriterOutput.create(writer);
     }
 
+    /**
+     * Get an output that encodes characters to UTF-8 and writes them to an {@code OutputStream}.
+     * The encoded data is buffered, use {@link #flush()} or {@link #close()} to write it to the stream.
+     *
+     * @param stream the stream to use
+     * @return the new stream output
+     */
+    static Output stream(OutputStream stream) {
+        return StreamOutput.create(stream);
+    }
+
 
     /**
      * Output a single character.
@@ -35,6 +46,17 @@ public interface Output extends AutoCloseable {
      */
     void raw(String string);
 
+    /**
+     * Output a portion of the characters in the given string.
+     *
+     * @param string the string to output from
+     * @param offset the offset from which to start outputting characters
+     * @param lenght the number of characters to output
+     */
+    default void raw(String string, int offset, int lenght) {
+        raw(string.substring(offset, offset + lenght));
+    }
+
     /**
      * Outputs a portion of an array of characters.
      *
@@ -44,6 +66,12 @@ public interface Output extends AutoCloseable {
      */
     void raw(char[] buffer, int offset, int lenght);
 
+    /**
+     * Write any buffered characters to the underlying target.
+     */
+    default void flush() {
+    }
+
     @Override
     void close();
 }
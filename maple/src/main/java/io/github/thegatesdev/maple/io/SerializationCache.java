@@ -0,0 +1,59 @@
+package io.github.thegatesdev.maple.io;
+
+import io.github.thegatesdev.maple.io.cache.*;
+
+/**
+ * Caches the serialized form of element collections, so unchanged collections are not encoded again.
+ * <p>
+ * Elements are immutable, so the serialized form of a collection never changes.
+ * Destinations using this cache encode each collection written with {@link Destination#value(Source)} once per format,
+ * and copy the cached form to their output when the same collection is written again.
+ * Collections are recognized by identity, not by their contents.
+ * Only collections stored in memory are cached,
+ * views like overlays and lazily decoded collections are encoded every time they are written.
+ * <p>
+ * The cache is bounded by the total size of the cached data, evicting the least recently used entries first.
+ *
+ * @author Timar Karels
+ */
+public sealed interface SerializationCache permits LruSerializationCache {
+
+
+    /**
+     * Create a cache holding serialized data up to the given size.
+     * For text formats the size is measured in characters, for binary formats in bytes.
+     *
+     * @param maxSize the maximum total size of the cached data
+     * @return the new cache
+     */
+    static SerializationCache create(long maxSize) {
+        return LruSerializationCache.create(maxSize);
+    }
+
+
+    /**
+     * Get the total size of the cached data.
+     */
+    long size();
+
+    /**
+     * Remove all cached data.
+     */
+    void clear();
+}
+
+/*
+Copyright 2024 Timar Karels
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
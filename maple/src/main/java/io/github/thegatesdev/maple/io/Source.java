@@ -1,6 +1,11 @@
 package io.github.thegatesdev.maple.io;
 
+import io.github.thegatesdev.maple.io.binary.impl.*;
+import io.github.thegatesdev.maple.io.json.impl.*;
+
 import java.io.*;
+import java.nio.*;
+import java.nio.file.*;
 
 /**
  * Represents a source of structured data.
@@ -11,12 +16,79 @@ public interface Source {
 
     /**
      * Get a data source that reads JSON data from the given Reader input.
+     * <p>
+     * The data is read in a single pass while it is written to the destination,
+     * so the returned source can only be written once.
+     * The reader is not closed afterwards.
      *
      * @param reader the reader to read from
      * @return the new JSON source
+     * @throws NullPointerException if the given reader is null
      */
     static Source json(Reader reader) {
-        throw new UnsupportedOperationException("Not implemented");
+        return JsonSource.create(reader);
+    }
+
+    /**
+     * Get a data source that reads UTF-8 encoded JSON data from the given input stream.
+     * <p>
+     * The data is parsed from the bytes directly, only string contents are decoded.
+     * It is read in a single pass while it is written to the destination,
+     * so the returned source can only be written once.
+     * The stream is not closed afterwards.
+     *
+     * @param stream the stream to read from
+     * @return the new JSON source
+     * @throws NullPointerException if the given stream is null
+     */
+    static Source json(InputStream stream) {
+        return Utf8JsonSource.create(stream);
+    }
+
+    /**
+     * Get a data source that reads UTF-8 encoded JSON data from the given array.
+     * <p>
+     * The data is parsed from the bytes directly, only string contents are decoded.
+     * The returned source can only be written once.
+     * Changes to the array while it is read are not guarded against.
+     *
+     * @param bytes the array to read from
+     * @return the new JSON source
+     * @throws NullPointerException if the given array is null
+     */
+    static Source json(byte[] bytes) {
+        return Utf8JsonSource.create(bytes);
+    }
+
+    /**
+     * Get a data source that reads UTF-8 encoded JSON data from the remaining bytes in the given buffer.
+     * <p>
+     * The data is parsed from the bytes directly, only string contents are decoded.
+     * The returned source can only be written once.
+     * The position of the given buffer is not changed.
+     *
+     * @param buffer the buffer to read from
+     * @return the new JSON source
+     * @throws NullPointerException if the given buffer is null
+     */
+    static Source json(ByteBuffer buffer) {
+        return Utf8JsonSource.create(buffer);
+    }
+
+    /**
+     * Get a data source that reads UTF-8 encoded JSON data from the file at the given path.
+     * <p>
+     * The file is read through its channel in large blocks while it is written to the destination, and closed afterwards.
+     * It is not memory mapped, reading it is the same as reading a stream of the file with a large buffer.
+     * Only a single block of the file is kept on the heap, making it suitable for very large files.
+     * The returned source can only be written once.
+     *
+     * @param path the path of the file to read from
+     * @return the new JSON source
+     * @throws NullPointerException if the given path is null
+     */
+    static Source json(Path path) {
+        return Utf8JsonSource.create(path);
     }
 
 
@@ -26,6 +98,37 @@ public interface Source {
      * @param handler the destination to write to
      */
     void writeTo(Destination handler);
+
+    /**
+     * Get a data source that reads the Maple binary format from the given input stream.
+     * <p>
+     * The data is read in a single pass while it is written to the destination,
+     * so the returned source can only be written once.
+     * The stream is not closed afterwards.
+     *
+     * @param stream the stream to read from
+     * @return the new binary source
+     * @throws NullPointerException if the given stream is null
+     * @see Destination#binary(OutputStream)
+     */
+    static Source binary(InputStream stream) {
+        return BinarySource.create(stream);
+    }
+
+    /**
+     * Get a data source that reads the Maple binary format from the given array.
+     * <p>
+     * The returned source can only be written once.
+     * Changes to the array while it is read are not guarded against.
+     *
+     * @param bytes the array to read from
+     * @return the new binary source
+     * @throws NullPointerException if the given array is null
+     * @see Destination#binary(OutputStream)
+     */
+    static Source binary(byte[] bytes) {
+        return BinarySource.create(bytes);
+    }
 }
 
 /*
@@ -0,0 +1,415 @@
+package io.github.thegatesdev.maple.io.binary.impl;
+
+import io.github.thegatesdev.maple.exception.*;
+import io.github.thegatesdev.maple.io.*;
+
+import java.io.*;
+import java.lang.invoke.*;
+import java.math.*;
+import java.nio.*;
+import java.nio.charset.*;
+import java.util.*;
+
+import static io.github.thegatesdev.maple.io.binary.impl.BinaryFormat.*;
+
+/**
+ * A destination writing the Maple binary format to an output stream.
+ * <p>
+ * Objects and arrays opened with a size hint are written with their member count and byte length up front.
+ * They stay in the buffer until they are closed, so the length can be filled in and the count corrected when the hint was wrong.
+ * Without a size hint, they are written as open containers ending with an end tag, and can be streamed.
+ * The written data is buffered, and passed to the stream each time a root value is complete.
+ *
+ * @author Timar Karels
+ * @see BinaryFormat
+ */
+public final class BinaryDestination implements Destination {
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int MAX_HEADER_SIZE = 1 + 10 + 1; // A tag, the largest variable length integer and a length placeholder
+
+    private static final VarHandle INTS = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private final OutputStream stream;
+    private byte[] buffer;
+    private int position;
+
+    // The scope stack, the expected member count is -1 for open containers
+    private boolean[] objects = new boolean[16];
+    private int[] expected = new int[16];
+    private int[] written = new int[16];
+    private int[] starts = new int[16]; // The buffer position of the tag of counted containers
+    private int depth;
+    private boolean named;
+
+
+    private BinaryDestination(OutputStream stream, byte[] buffer) {
+        this.stream = stream;
+        this.buffer = buffer;
+    }
+
+    public static Destination create(OutputStream stream) {
+        Objects.requireNonNull(stream, "given stream is null");
+
+        return new BinaryDestination(stream, new byte[BUFFER_SIZE]);
+    }
+
+
+    private void beforeValue() {
+        if (depth == 0) return;
+        int top = depth - 1;
+        if (objects[top]) {
+            if (!named) throw new InvalidBinaryException("Expected name before value");
+            named = false;
+        }
+        written[top]++;
+    }
+
+    private void afterValue() {
+        if (depth == 0) flushBuffer(); // A root value is complete
+    }
+
+    private void open(boolean object, int sizeHint) {
+        beforeValue();
+        ensure(MAX_HEADER_SIZE);
+        int start = position;
+        if (sizeHint < 0) {
+            buffer[position++] = (byte) (object ? OPEN_OBJECT : OPEN_ARRAY);
+        } else {
+            buffer[position++] = (byte) (object ? OBJECT : ARRAY);
+            writeVarint(sizeHint);
+            buffer[position++] = 0; // The byte length, written when the container is closed
+        }
+
+        if (depth == objects.length) {
+            objects = Arrays.copyOf(objects, depth * 2);
+            expected = Arrays.copyOf(expected, depth * 2);
+            written = Arrays.copyOf(written, depth * 2);
+            starts = Arrays.copyOf(starts, depth * 2);
+        }
+        objects[depth] = object;
+        expected[depth] = sizeHint;
+        written[depth] = 0;
+        starts[depth] = start;
+        depth++;
+    }
+
+    private void close(boolean object) {
+        if (depth == 0 || objects[depth - 1] != object)
+            throw new InvalidBinaryException("Not in " + (object ? "an object" : "an array") + " scope");
+        if (object && named) throw new InvalidBinaryException("Expected value");
+
+        int top = depth - 1;
+        if (expected[top] < 0) {
+            ensure(1);
+            buffer[position++] = END;
+        } else {
+            writeHeader(starts[top], expected[top], written[top]);
+        }
+        depth--;
+        afterValue();
+    }
+
+
+    @Override
+    public void openObject() {
+        open(true, -1);
+    }
+
+    @Override
+    public void openObject(int sizeHint) {
+        open(true, Math.max(sizeHint, -1));
+    }
+
+    @Override
+    public void closeObject() {
+        close(true);
+    }
+
+    @Override
+    public void openArray() {
+        open(false, -1);
+    }
+
+    @Override
+    public void openArray(int sizeHint) {
+        open(false, Math.max(sizeHint, -1));
+    }
+
+    @Override
+    public void closeArray() {
+        close(false);
+    }
+
+
+    @Override
+    public void name(String name) {
+        Objects.requireNonNull(name, "given name is null");
+        if (depth == 0 || !objects[depth - 1]) throw new InvalidBinaryException("Not in an object scope");
+        if (named) throw new InvalidBinaryException("Expected value");
+
+        named = true;
+        if (expected[depth - 1] < 0) {
+            ensure(1);
+            buffer[position++] = STRING;
+        }
+        writeText(name);
+    }
+
+    @Override
+    public void value(String value) {
+        beforeValue();
+        ensure(1);
+        buffer[position++] = STRING;
+        writeText(value);
+        afterValue();
+    }
+
+    @Override
+    public void value(boolean value) {
+        writeTag(value ? TRUE : FALSE);
+    }
+
+    @Override
+    public void value(int value) {
+        if (value >= MIN_SMALL_INT && value <= MAX_SMALL_INT) {
+            writeTag(SMALL_INT + value - MIN_SMALL_INT);
+            return;
+        }
+        beforeValue();
+        ensure(MAX_HEADER_SIZE);
+        buffer[position++] = INT;
+        writeVarint((value << 1) ^ (value >> 31));
+        afterValue();
+    }
+
+    @Override
+    public void value(long value) {
+        beforeValue();
+        ensure(MAX_HEADER_SIZE);
+        buffer[position++] = LONG;
+        writeVarint((value << 1) ^ (value >> 63));
+        afterValue();
+    }
+
+    @Override
+    public void value(float value) {
+        beforeValue();
+        ensure(1 + Float.BYTES);
+        buffer[position++] = FLOAT;
+        INTS.set(buffer, position, Float.floatToRawIntBits(value));
+        position += Float.BYTES;
+        afterValue();
+    }
+
+    @Override
+    public void value(double value) {
+        beforeValue();
+        ensure(1 + Double.BYTES);
+        buffer[position++] = DOUBLE;
+        LONGS.set(buffer, position, Double.doubleToRawLongBits(value));
+        position += Double.BYTES;
+        afterValue();
+    }
+
+    @Override
+    public void value(BigInteger value) {
+        Objects.requireNonNull(value, "given value is null");
+        beforeValue();
+        ensure(1);
+        buffer[position++] = BIG_INTEGER;
+        writeBytes(value.toByteArray());
+        afterValue();
+    }
+
+    @Override
+    public void value(BigDecimal value) {
+        Objects.requireNonNull(value, "given value is null");
+        beforeValue();
+        ensure(MAX_HEADER_SIZE);
+        buffer[position++] = BIG_DECIMAL;
+        int scale = value.scale();
+        writeVarint((scale << 1) ^ (scale >> 31));
+        writeBytes(value.unscaledValue().toByteArray());
+        afterValue();
+    }
+
+    @Override
+    public void valueNull() {
+        writeTag(NULL);
+    }
+
+
+    private void writeTag(int tag) {
+        beforeValue();
+        ensure(1);
+        buffer[position++] = (byte) tag;
+        afterValue();
+    }
+
+    /**
+     * Replace the size hint and the length placeholder of the counted container with its tag at the given position,
+     * by its actual member count and byte length, moving the members when the header changes size.
+     * The container is still in the buffer, because counted containers are never flushed before they are closed.
+     */
+    private void writeHeader(int start, int hint, int count) {
+        int headerStart = start + 1;
+        int oldEnd = headerStart + varintSize(hint) + 1;
+        int length = position - oldEnd;
+        int newEnd = headerStart + varintSize(count) + varintSize(length);
+        if (newEnd != oldEnd) {
+            if (newEnd > oldEnd) grow(newEnd - oldEnd);
+            System.arraycopy(buffer, oldEnd, buffer, newEnd, position - oldEnd);
+            position += newEnd - oldEnd;
+        }
+        int end = position;
+        position = headerStart;
+        writeVarint(count);
+        writeVarint(length);
+        position = end;
+    }
+
+    private void writeVarint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) (value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    private void writeVarint(int value) {
+        writeVarint(value & 0xFFFFFFFFL);
+    }
+
+    private void writeBytes(byte[] bytes) {
+        ensure(MAX_HEADER_SIZE);
+        writeVarint(bytes.length);
+        writeRaw(bytes, bytes.length);
+    }
+
+    private void writeText(String text) {
+        int length = utf8Length(text);
+        if (length > buffer.length - MAX_HEADER_SIZE) {
+            // Too large for the buffer, let the string encode itself
+            writeBytes(text.getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+
+        ensure(MAX_HEADER_SIZE + length);
+        writeVarint(length);
+        byte[] buffer = this.buffer;
+        int position = this.position;
+        for (int i = 0, count = text.length(); i < count; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                buffer[position++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | c >> 6);
+                buffer[position++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < count && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                buffer[position++] = (byte) (0xF0 | codePoint >> 18);
+                buffer[position++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                buffer[position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                buffer[position++] = (byte) (0x80 | codePoint & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                buffer[position++] = '?'; // Unpaired, like String.getBytes
+            } else {
+                buffer[position++] = (byte) (0xE0 | c >> 12);
+                buffer[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+                buffer[position++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        this.position = position;
+    }
+
+    private void writeRaw(byte[] bytes, int length) {
+        if (length > buffer.length - position) {
+            flushBuffer();
+            if (position == 0 && length > buffer.length) {
+                try {
+                    stream.write(bytes, 0, length);
+                } catch (IOException e) {
+                    throw new OutputException(e);
+                }
+                return;
+            }
+        }
+        ensure(length);
+        System.arraycopy(bytes, 0, buffer, position, length);
+        position += length;
+    }
+
+    private void ensure(int count) {
+        if (buffer.length - position >= count) return;
+        flushBuffer();
+        if (buffer.length - position < count) grow(count);
+    }
+
+    private void grow(int count) {
+        if (buffer.length - position < count)
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + count));
+    }
+
+    /**
+     * Pass the buffered data to the stream, up to the outermost counted container that is not closed yet.
+     */
+    private void flushBuffer() {
+        int end = position;
+        for (int i = 0; i < depth; i++) {
+            if (expected[i] >= 0) {
+                end = starts[i];
+                break;
+            }
+        }
+        if (end == 0) return;
+        try {
+            stream.write(buffer, 0, end);
+        } catch (IOException e) {
+            throw new OutputException(e);
+        }
+        System.arraycopy(buffer, end, buffer, 0, position - end);
+        position -= end;
+        for (int i = 0; i < depth; i++) starts[i] -= end;
+    }
+
+
+    private static int varintSize(int value) {
+        return Math.max(1, (38 - Integer.numberOfLeadingZeros(value)) / 7);
+    }
+
+    private static int utf8Length(String text) {
+        int count = text.length();
+        int length = count;
+        for (int i = 0; i < count; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) continue;
+            if (c < 0x800) {
+                length += 1;
+            } else if (Character.isHighSurrogate(c) && i + 1 < count && Character.isLowSurrogate(text.charAt(i + 1))) {
+                length += 2; // Four bytes for two characters
+                i++;
+            } else if (!Character.isSurrogate(c)) {
+                length += 2;
+            }
+        }
+        return length;
+    }
+}
+
+/*
+Copyright 2024 Timar Karels
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
@@ -0,0 +1,84 @@
+package io.github.thegatesdev.maple.io.binary.impl;
+
+import java.nio.*;
+import java.nio.charset.*;
+
+/**
+ * The tags of the Maple binary format.
+ * <p>
+ * Every value starts with a single tag byte, followed by its payload:
+ * <ul>
+ *     <li>{@code null}, {@code false} and {@code true} have no payload.</li>
+ *     <li>Small integers from {@value #MIN_SMALL_INT} to {@value #MAX_SMALL_INT} are stored in the tag itself.</li>
+ *     <li>Other ints and longs are stored as zigzag encoded variable length integers.</li>
+ *     <li>Floats and doubles are stored as their big endian IEEE 754 bits.</li>
+ *     <li>Big integers are stored as their length and two's complement bytes,
+ *     big decimals as their zigzag encoded scale followed by the unscaled value like a big integer.</li>
+ *     <li>Strings are stored as their length in UTF-8 bytes, followed by those bytes.</li>
+ *     <li>Counted objects and arrays are stored as their member count and the length of their members in bytes,
+ *     followed by the members. The length lets readers skip them without reading their members.
+ *     Object members are a name, stored like a string without tag, followed by the value.</li>
+ *     <li>Open objects and arrays are followed by their members, up to an end tag.
+ *     In open objects names are preceded by a string tag, to tell them apart from the end tag.</li>
+ * </ul>
+ * Lengths and counts are stored as unsigned variable length integers, seven bits at a time, least significant first.
+ *
+ * @author Timar Karels
+ */
+final class BinaryFormat {
+
+    static final int NULL = 0x00;
+    static final int FALSE = 0x01;
+    static final int TRUE = 0x02;
+    static final int INT = 0x03;
+    static final int LONG = 0x04;
+    static final int FLOAT = 0x05;
+    static final int DOUBLE = 0x06;
+    static final int BIG_INTEGER = 0x07;
+    static final int BIG_DECIMAL = 0x08;
+    static final int STRING = 0x09;
+    static final int OBJECT = 0x0A;
+    static final int ARRAY = 0x0B;
+    static final int OPEN_OBJECT = 0x0C;
+    static final int OPEN_ARRAY = 0x0D;
+    static final int END = 0x0E;
+
+    static final int SMALL_INT = 0x80;
+    static final int MIN_SMALL_INT = -16;
+    static final int MAX_SMALL_INT = 111;
+
+
+    private BinaryFormat() {
+    }
+
+
+    /**
+     * Decode the given UTF-8 encoded text with the given decoder, which must report malformed input.
+     * Unlike {@code new String}, malformed input is not silently replaced.
+     *
+     * @throws CharacterCodingException if the text is malformed
+     */
+    static String decodeText(CharsetDecoder decoder, byte[] bytes, int offset, int length) throws CharacterCodingException {
+        int end = offset + length;
+        int i = offset;
+        while (i < end && bytes[i] >= 0) i++;
+        if (i == end) return new String(bytes, offset, length, StandardCharsets.ISO_8859_1); // No decoding needed
+        return decoder.decode(ByteBuffer.wrap(bytes, offset, length)).toString();
+    }
+}
+
+/*
+Copyright 2024 Timar Karels
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
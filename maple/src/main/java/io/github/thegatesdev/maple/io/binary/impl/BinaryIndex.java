@@ -0,0 +1,275 @@
+package io.github.thegatesdev.maple.io.binary.impl;
+
+import io.github.thegatesdev.maple.exception.*;
+
+import java.nio.charset.*;
+import java.util.*;
+
+import static io.github.thegatesdev.maple.io.binary.impl.BinaryFormat.*;
+
+/**
+ * A structural index of the direct members of a single object or array, in Maple binary data.
+ * <p>
+ * Only the boundaries of the members are located, nested values are skipped without being decoded or validated.
+ * Counted objects and arrays are skipped as a whole using their byte length, open ones by walking their members.
+ * For objects, each member takes four offsets: name start, name end, value start and value end.
+ * For arrays, each member takes two offsets: value start and value end.
+ * Name offsets exclude the length, value ends are exclusive.
+ *
+ * @author Timar Karels
+ * @see BinaryFormat
+ */
+public final class BinaryIndex {
+
+    private final boolean object;
+    private final int[] offsets;
+    private final int count;
+
+
+    private BinaryIndex(boolean object, int[] offsets, int count) {
+        this.object = object;
+        this.offsets = offsets;
+        this.count = count;
+    }
+
+    /**
+     * Index the object or array starting at the given offset.
+     *
+     * @param data  the binary data
+     * @param start the offset of the tag of the object or array
+     * @param limit the offset after which no data may be read
+     * @return the index of the object or array
+     * @throws InvalidBinaryException if the structure is invalid
+     */
+    public static BinaryIndex of(byte[] data, int start, int limit) {
+        Objects.requireNonNull(data, "given array is null");
+        Objects.checkFromToIndex(start, limit, data.length);
+
+        return new Scanner(data, start, limit).index();
+    }
+
+    /**
+     * Find the exclusive end offset of the value at the given offset.
+     *
+     * @param data  the binary data
+     * @param start the offset of the tag of the value
+     * @param limit the offset after which no data may be read
+     * @return the end offset of the value
+     * @throws InvalidBinaryException if the value does not end before the limit
+     */
+    public static int valueEnd(byte[] data, int start, int limit) {
+        Objects.requireNonNull(data, "given array is null");
+        Objects.checkFromToIndex(start, limit, data.length);
+
+        Scanner scanner = new Scanner(data, start, limit);
+        scanner.skipValue();
+        return scanner.position;
+    }
+
+    /**
+     * Check whether the given tag starts an object or array.
+     */
+    public static boolean isCollection(byte tag) {
+        int value = tag & 0xFF;
+        return value == OBJECT || value == ARRAY || value == OPEN_OBJECT || value == OPEN_ARRAY;
+    }
+
+    /**
+     * Decode the UTF-8 encoded text in the given range.
+     *
+     * @throws InvalidBinaryException if the text is malformed
+     */
+    public static String text(byte[] data, int start, int end) {
+        try {
+            return decodeText(StandardCharsets.UTF_8.newDecoder(), data, start, end - start);
+        } catch (CharacterCodingException e) {
+            throw new InvalidBinaryException("Malformed UTF-8 text (at offset " + start + ")");
+        }
+    }
+
+
+    public boolean isObject() {
+        return object;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public int valueStart(int member) {
+        return offsets[object ? member * 4 + 2 : member * 2];
+    }
+
+    public int valueEnd(int member) {
+        return offsets[object ? member * 4 + 3 : member * 2 + 1];
+    }
+
+    public int keyStart(int member) {
+        return offsets[member * 4];
+    }
+
+    public int keyEnd(int member) {
+        return offsets[member * 4 + 1];
+    }
+
+
+    private static final class Scanner {
+
+        private final byte[] data;
+        private final int limit;
+        private int position;
+        private int[] offsets = new int[16];
+        private int size;
+
+        // The scope stack of the open containers being skipped, 'true' for an object scope
+        private boolean[] scopes = new boolean[16];
+
+
+        private Scanner(byte[] data, int start, int limit) {
+            this.data = data;
+            this.position = start;
+            this.limit = limit;
+        }
+
+
+        private BinaryIndex index() {
+            int start = position;
+            int tag = readByte();
+            boolean object = tag == OBJECT || tag == OPEN_OBJECT;
+            long expected = -1;
+            int end = -1;
+            switch (tag) {
+                case OBJECT, ARRAY -> {
+                    expected = readVarint();
+                    int length = readLength();
+                    // Every member takes at least a byte, a larger count cannot be right
+                    if (expected > length) throw error("Member count larger than the member length", start);
+                    end = position + length;
+                }
+                case OPEN_OBJECT, OPEN_ARRAY -> {
+                }
+                default -> throw error("Expected object or array", start);
+            }
+
+            int count = 0;
+            while (expected < 0 ? peek() != END : count < expected) {
+                if (object) {
+                    if (expected < 0 && readByte() != STRING) throw error("Expected name", position - 1);
+                    int length = readLength();
+                    add(position);
+                    add(position += length);
+                }
+                add(position);
+                skipValue();
+                add(position);
+                count++;
+            }
+            if (expected < 0) position++; // The end tag
+            else if (position != end) throw error("Members do not match the container length", start);
+            return new BinaryIndex(object, Arrays.copyOf(offsets, size), count);
+        }
+
+        private void skipValue() {
+            int depth = 0;
+            while (true) {
+                if (depth > 0) {
+                    if (peek() == END) {
+                        position++;
+                        if (--depth == 0) return;
+                        continue;
+                    }
+                    if (scopes[depth - 1]) {
+                        if (readByte() != STRING) throw error("Expected name", position - 1);
+                        skip(readLength());
+                    }
+                }
+
+                int tag = readByte();
+                if (tag < SMALL_INT) {
+                    switch (tag) {
+                        case NULL, FALSE, TRUE -> {
+                        }
+                        case INT, LONG -> readVarint();
+                        case FLOAT -> skip(Float.BYTES);
+                        case DOUBLE -> skip(Double.BYTES);
+                        case BIG_INTEGER, STRING -> skip(readLength());
+                        case BIG_DECIMAL -> {
+                            readVarint();
+                            skip(readLength());
+                        }
+                        case OBJECT, ARRAY -> {
+                            readVarint();
+                            skip(readLength()); // Skipped as a whole, without reading the members
+                        }
+                        case OPEN_OBJECT, OPEN_ARRAY -> {
+                            if (depth == scopes.length) scopes = Arrays.copyOf(scopes, depth * 2);
+                            scopes[depth++] = tag == OPEN_OBJECT;
+                            continue;
+                        }
+                        case END -> throw error("Unexpected end tag, expected value", position - 1);
+                        default -> throw error("Unknown tag " + tag, position - 1);
+                    }
+                }
+                if (depth == 0) return;
+            }
+        }
+
+
+        private int readLength() {
+            long length = readVarint();
+            if (length > limit - position) throw error("Length larger than the remaining input", position);
+            return (int) length;
+        }
+
+        private long readVarint() {
+            long value = 0;
+            for (int shift = 0; shift < Long.SIZE; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if (b < 0x80) return value;
+            }
+            throw error("Variable length integer too long", position);
+        }
+
+        private void skip(int count) {
+            if (count > limit - position) throw error("Unexpected end of input", limit);
+            position += count;
+        }
+
+        private int peek() {
+            if (position >= limit) throw error("Unexpected end of input", position);
+            return data[position] & 0xFF;
+        }
+
+        private int readByte() {
+            int b = peek();
+            position++;
+            return b;
+        }
+
+        private void add(int offset) {
+            if (size == offsets.length) offsets = Arrays.copyOf(offsets, size * 2);
+            offsets[size++] = offset;
+        }
+
+        private static InvalidBinaryException error(String message, int position) {
+            return new InvalidBinaryException(message + " (at offset " + position + ")");
+        }
+    }
+}
+
+/*
+Copyright 2024 Timar Karels
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
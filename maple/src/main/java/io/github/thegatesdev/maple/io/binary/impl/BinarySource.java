@@ -0,0 +1,311 @@
+package io.github.thegatesdev.maple.io.binary.impl;
+
+import io.github.thegatesdev.maple.exception.*;
+import io.github.thegatesdev.maple.io.*;
+
+import java.io.*;
+import java.lang.invoke.*;
+import java.math.*;
+import java.nio.*;
+import java.nio.charset.*;
+import java.util.*;
+
+import static io.github.thegatesdev.maple.io.binary.impl.BinaryFormat.*;
+
+/**
+ * A source reading the Maple binary format, from an array or an input stream.
+ * <p>
+ * Member counts of objects and arrays are passed on as size hints,
+ * so destinations can prepare for the members before they are read.
+ * Their byte lengths are checked against the members that were read.
+ *
+ * @author Timar Karels
+ * @see BinaryFormat
+ */
+public final class BinarySource implements Source {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final VarHandle INTS = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private final InputStream stream; // Not present means the buffer holds all data
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder(); // Reports malformed input
+    private byte[] buffer;
+    private int position, limit;
+    private long consumed;
+
+    // The scope stack, the remaining member count is -1 for open containers
+    private boolean[] objects = new boolean[16];
+    private long[] remaining = new long[16];
+    private long[] ends = new long[16]; // The input offset after the members of counted containers
+    private int depth;
+
+    private boolean read = false;
+
+
+    private BinarySource(InputStream stream, byte[] buffer, int position, int limit) {
+        this.stream = stream;
+        this.buffer = buffer;
+        this.position = position;
+        this.limit = limit;
+        this.consumed = -position;
+    }
+
+    public static Source create(byte[] bytes) {
+        Objects.requireNonNull(bytes, "given array is null");
+
+        return new BinarySource(null, bytes, 0, bytes.length);
+    }
+
+    public static Source create(byte[] bytes, int offset, int length) {
+        Objects.requireNonNull(bytes, "given array is null");
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+
+        return new BinarySource(null, bytes, offset, offset + length);
+    }
+
+    public static Source create(InputStream stream) {
+        Objects.requireNonNull(stream, "given stream is null");
+
+        return new BinarySource(stream, new byte[BUFFER_SIZE], 0, 0);
+    }
+
+
+    @Override
+    public void writeTo(Destination destination) {
+        Objects.requireNonNull(destination, "given destination is null");
+        if (read) throw new IllegalStateException("Binary source was already read");
+        read = true;
+
+        if (!available(1)) throw error("Unexpected end of input, expected value");
+        do {
+            readValue(destination);
+        } while (available(1));
+    }
+
+
+    private void readValue(Destination destination) {
+        while (true) {
+            if (depth > 0) {
+                // Close the current scope when complete, otherwise continue with its next member
+                int top = depth - 1;
+                long left = remaining[top];
+                if (left == 0 || (left < 0 && peek() == END)) {
+                    if (left < 0) position++;
+                    else if (consumed + position != ends[top]) throw error("Members do not match the container length");
+                    if (objects[top]) destination.closeObject();
+                    else destination.closeArray();
+                    if (--depth == 0) return;
+                    continue;
+                }
+                if (left > 0) remaining[top] = left - 1;
+                if (objects[top]) {
+                    if (left < 0 && readByte() != STRING) throw error("Expected name");
+                    destination.name(readText());
+                }
+            }
+
+            readTagged(destination, readByte());
+            if (depth == 0) return;
+        }
+    }
+
+    private void readTagged(Destination destination, int tag) {
+        if (tag >= SMALL_INT) {
+            destination.value(tag - SMALL_INT + MIN_SMALL_INT);
+            return;
+        }
+        switch (tag) {
+            case NULL -> destination.valueNull();
+            case FALSE -> destination.value(false);
+            case TRUE -> destination.value(true);
+            case INT -> {
+                int value = (int) readVarint();
+                destination.value(value >>> 1 ^ -(value & 1));
+            }
+            case LONG -> {
+                long value = readVarint();
+                destination.value(value >>> 1 ^ -(value & 1));
+            }
+            case FLOAT -> {
+                require(Float.BYTES);
+                destination.value(Float.intBitsToFloat((int) INTS.get(buffer, position)));
+                position += Float.BYTES;
+            }
+            case DOUBLE -> {
+                require(Double.BYTES);
+                destination.value(Double.longBitsToDouble((long) LONGS.get(buffer, position)));
+                position += Double.BYTES;
+            }
+            case BIG_INTEGER -> destination.value(readBigInteger());
+            case BIG_DECIMAL -> {
+                int scale = (int) readVarint();
+                destination.value(new BigDecimal(readBigInteger(), scale >>> 1 ^ -(scale & 1)));
+            }
+            case STRING -> destination.value(readText());
+            case OBJECT, ARRAY -> {
+                boolean object = tag == OBJECT;
+                long count = readVarint();
+                long length = readVarint();
+                if (length > Integer.MAX_VALUE) throw error("Member length too large");
+                // Every member takes at least a byte, a larger count cannot be right
+                if (count > length) throw error("Member count larger than the member length");
+                if (stream == null && length > limit - position) throw error("Member length larger than the remaining input");
+                if (object) destination.openObject((int) count);
+                else destination.openArray((int) count);
+                push(object, count, consumed + position + length);
+            }
+            case OPEN_OBJECT -> {
+                destination.openObject();
+                push(true, -1, -1);
+            }
+            case OPEN_ARRAY -> {
+                destination.openArray();
+                push(false, -1, -1);
+            }
+            case END -> throw error("Unexpected end tag, expected value");
+            default -> throw error("Unknown tag " + tag);
+        }
+    }
+
+    private String readText() {
+        int length = readLength();
+        if (isLarge(length)) return decodeText(readLarge(length), 0, length);
+        require(length);
+        String text = decodeText(buffer, position, length);
+        position += length;
+        return text;
+    }
+
+    private String decodeText(byte[] bytes, int offset, int length) {
+        try {
+            return BinaryFormat.decodeText(decoder, bytes, offset, length);
+        } catch (CharacterCodingException e) {
+            throw error("Malformed UTF-8 text");
+        }
+    }
+
+    private BigInteger readBigInteger() {
+        int length = readLength();
+        if (length == 0) throw error("Empty big integer");
+        if (isLarge(length)) return new BigInteger(readLarge(length));
+        require(length);
+        BigInteger value = new BigInteger(buffer, position, length);
+        position += length;
+        return value;
+    }
+
+    private boolean isLarge(int length) {
+        return stream != null && length > buffer.length;
+    }
+
+    /**
+     * Read a payload larger than the buffer from the stream.
+     * The result grows as the data arrives, so a declared length alone never allocates more than the data following it.
+     */
+    private byte[] readLarge(int length) {
+        int buffered = limit - position;
+        byte[] result = Arrays.copyOfRange(buffer, position, position + Math.max(buffered, BUFFER_SIZE));
+        position = limit;
+        int filled = buffered;
+        try {
+            while (filled < length) {
+                if (filled == result.length) result = Arrays.copyOf(result, (int) Math.min(length, result.length * 2L));
+                int read = stream.read(result, filled, Math.min(result.length, length) - filled);
+                if (read < 0) throw error("Unexpected end of input");
+                filled += read;
+                consumed += read;
+            }
+        } catch (IOException e) {
+            throw new InputException(e);
+        }
+        return result.length == length ? result : Arrays.copyOf(result, length);
+    }
+
+    private int readLength() {
+        long length = readVarint();
+        if (length > Integer.MAX_VALUE - 8) throw error("Length too large");
+        return (int) length;
+    }
+
+    private long readVarint() {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if (b < 0x80) return value;
+        }
+        throw error("Variable length integer too long");
+    }
+
+
+    private void push(boolean object, long count, long end) {
+        if (depth == objects.length) {
+            objects = Arrays.copyOf(objects, depth * 2);
+            remaining = Arrays.copyOf(remaining, depth * 2);
+            ends = Arrays.copyOf(ends, depth * 2);
+        }
+        objects[depth] = object;
+        remaining[depth] = count;
+        ends[depth] = end;
+        depth++;
+    }
+
+    private int peek() {
+        require(1);
+        return buffer[position] & 0xFF;
+    }
+
+    private int readByte() {
+        require(1);
+        return buffer[position++] & 0xFF;
+    }
+
+    private void require(int count) {
+        if (!available(count)) throw error("Unexpected end of input");
+    }
+
+    private boolean available(int count) {
+        if (limit - position >= count) return true;
+        if (stream == null) return false;
+
+        // Keep the unread data, and make room for the rest
+        int left = limit - position;
+        if (count > buffer.length) buffer = Arrays.copyOf(buffer, Math.max(count, buffer.length * 2));
+        System.arraycopy(buffer, position, buffer, 0, left);
+        consumed += position;
+        position = 0;
+        limit = left;
+        try {
+            while (limit < count) {
+                int read = stream.read(buffer, limit, buffer.length - limit);
+                if (read < 0) return false;
+                limit += read;
+            }
+        } catch (IOException e) {
+            throw new InputException(e);
+        }
+        return true;
+    }
+
+    private InvalidBinaryException error(String message) {
+        return new InvalidBinaryException(message + " (at offset " + (consumed + position) + ")");
+    }
+}
+
+/*
+Copyright 2024 Timar Karels
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
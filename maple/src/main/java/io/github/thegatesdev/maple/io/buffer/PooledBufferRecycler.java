@@ -0,0 +1,76 @@
+package io.github.thegatesdev.maple.io.buffer;
+
+import io.github.thegatesdev.maple.io.*;
+
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * A recycler keeping a bounded amount of buffers, shared between all threads without locking.
+ * <p>
+ * Each thread starts searching the slots at a different index, to spread contention.
+ *
+ * @author Timar Karels
+ */
+public final class PooledBufferRecycler implements BufferRecycler {
+
+    private final AtomicReferenceArray<char[]> slots;
+
+
+    private PooledBufferRecycler(AtomicReferenceArray<char[]> slots) {
+        this.slots = slots;
+    }
+
+    public static BufferRecycler create(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("given capacity is not positive");
+
+        return new PooledBufferRecycler(new AtomicReferenceArray<>(capacity));
+    }
+
+
+    @Override
+    public char[] acquire(int minLength) {
+        int capacity = slots.length();
+        int start = startIndex(capacity);
+        for (int i = 0; i < capacity; i++) {
+            int index = (start + i) % capacity;
+            char[] buffer = slots.getPlain(index);
+            if (buffer != null && buffer.length >= minLength && slots.compareAndSet(index, buffer, null)) return buffer;
+        }
+        return new char[minLength];
+    }
+
+    @Override
+    public void release(char[] buffer) {
+        Objects.requireNonNull(buffer, "given buffer is null");
+
+        int capacity = slots.length();
+        int start = startIndex(capacity);
+        for (int i = 0; i < capacity; i++) {
+            int index = (start + i) % capacity;
+            if (slots.getPlain(index) == null && slots.compareAndSet(index, null, buffer)) return;
+        }
+        // The pool is full, leave this buffer to the garbage collector
+    }
+
+
+    private static int startIndex(int capacity) {
+        return (int) (Thread.currentThread().threadId() % capacity);
+    }
+}
+
+/*
+Copyright 2024 Timar Karels
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
@@ -0,0 +1,68 @@
+package io.github.thegatesdev.maple.io.buffer;
+
+import io.github.thegatesdev.maple.io.*;
+
+import java.util.*;
+
+/**
+ * A recycler keeping a small amount of buffers for each thread.
+ *
+ * @author Timar Karels
+ */
+public final class ThreadLocalBufferRecycler implements BufferRecycler {
+
+    public static final BufferRecycler INSTANCE = new ThreadLocalBufferRecycler();
+
+    // Enough for a few nested writers on the same thread
+    private static final int SLOTS = 4;
+
+    private final ThreadLocal<char[][]> buffers = ThreadLocal.withInitial(() -> new char[SLOTS][]);
+
+
+    private ThreadLocalBufferRecycler() {
+    }
+
+
+    @Override
+    public char[] acquire(int minLength) {
+        char[][] slots = buffers.get();
+        for (int i = 0; i < SLOTS; i++) {
+            char[] buffer = slots[i];
+            if (buffer != null && buffer.length >= minLength) {
+                slots[i] = null;
+                return buffer;
+            }
+        }
+        return new char[minLength];
+    }
+
+    @Override
+    public void release(char[] buffer) {
+        Objects.requireNonNull(buffer, "given buffer is null");
+
+        char[][] slots = buffers.get();
+        for (int i = 0; i < SLOTS; i++) {
+            if (slots[i] == null) {
+                slots[i] = buffer;
+                return;
+            }
+        }
+        // All slots are taken, leave this buffer to the garbage collector
+    }
+}
+
+/*
+Copyright 2024 Timar Karels
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
@@ -0,0 +1,112 @@
+package io.github.thegatesdev.maple.io.cache;
+
+import io.github.thegatesdev.maple.io.*;
+
+import java.util.*;
+
+/**
+ * A serialization cache evicting the least recently used entries, guarded by a single lock.
+ * <p>
+ * Entries are keyed by format and source identity.
+ * The encoded data is stored as the format sees fit, along with its size.
+ *
+ * @author Timar Karels
+ */
+public final class LruSerializationCache implements SerializationCache {
+
+    private final long maxSize;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long size;
+
+
+    private LruSerializationCache(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public static SerializationCache create(long maxSize) {
+        if (maxSize <= 0) throw new IllegalArgumentException("given max size is not positive");
+
+        return new LruSerializationCache(maxSize);
+    }
+
+
+    /**
+     * Get the encoded data of the given source.
+     *
+     * @param format the name of the format
+     * @param source the source that was encoded
+     * @return the encoded data, or {@code null} if it is not cached
+     */
+    public synchronized Object get(String format, Source source) {
+        Entry entry = entries.get(new Key(format, source));
+        return entry == null ? null : entry.encoded;
+    }
+
+    /**
+     * Store the encoded data of the given source, evicting older entries if needed.
+     * Data larger than the maximum size of this cache is not stored.
+     *
+     * @param format      the name of the format
+     * @param source      the source that was encoded
+     * @param encoded     the encoded data
+     * @param encodedSize the size of the encoded data
+     */
+    public synchronized void put(String format, Source source, Object encoded, int encodedSize) {
+        if (encodedSize > maxSize) return;
+
+        Entry previous = entries.put(new Key(format, source), new Entry(encoded, encodedSize));
+        if (previous != null) size -= previous.size;
+        size += encodedSize;
+
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (size > maxSize) {
+            size -= iterator.next().size;
+            iterator.remove();
+        }
+    }
+
+
+    @Override
+    public synchronized long size() {
+        return size;
+    }
+
+    @Override
+    public synchronized void clear() {
+        entries.clear();
+        size = 0;
+    }
+
+
+    private record Entry(Object encoded, int size) {
+    }
+
+    private record Key(String format, Source source) {
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key key && source == key.source && format.equals(key.format);
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(source) * 31 + format.hashCode();
+        }
+    }
+}
+
+/*
+Copyright 2024 Timar Karels
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
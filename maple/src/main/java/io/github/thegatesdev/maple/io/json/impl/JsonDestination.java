@@ -1,34 +1,55 @@
 package io.github.thegatesdev.maple.io.json.impl;
 
+import io.github.thegatesdev.maple.element.*;
+import io.github.thegatesdev.maple.element.impl.internal.*;
 import io.github.thegatesdev.maple.exception.*;
 import io.github.thegatesdev.maple.io.*;
+import io.github.thegatesdev.maple.io.cache.*;
 import io.github.thegatesdev.maple.io.json.util.*;
+import io.github.thegatesdev.maple.io.output.*;
 
+import java.io.*;
 import java.math.*;
 import java.util.*;
 
 public class JsonDestination implements Destination {
 
+    private static final String FORMAT = "json";
+
     private final Output output;
     private final JsonWriteContext context;
     private final JsonScopes jsonScopes;
+    private final LruSerializationCache cache; // Not present means nothing is cached
 
 
-    private JsonDestination(Output output, JsonWriteContext context, JsonScopes jsonScopes) {
+    private JsonDestination(Output output, JsonWriteContext context, JsonScopes jsonScopes, LruSerializationCache cache) {
         this.context = context;
         this.output = output;
         this.jsonScopes = jsonScopes;
+        this.cache = cache;
     }
 
     public static Destination create(Output output) {
-        return create(output, new JsonWriteContext());
+        return create(output, BufferRecycler.threadLocal());
+    }
+
+    public static Destination create(Output output, BufferRecycler recycler) {
+        return create(output, new JsonWriteContext(recycler));
     }
 
     public static Destination create(Output output, JsonWriteContext context) {
         Objects.requireNonNull(output, "given output is null");
         Objects.requireNonNull(context, "given context is null");
 
-        return new JsonDestination(output, context, JsonScopes.root());
+        return new JsonDestination(output, context, JsonScopes.root(), null);
+    }
+
+    public static Destination create(Output output, SerializationCache cache) {
+        Objects.requireNonNull(output, "given output is null");
+        Objects.requireNonNull(cache, "given cache is null");
+
+        return new JsonDestination(output, new JsonWriteContext(BufferRecycler.threadLocal()), JsonScopes.root(),
+            (LruSerializationCache) cache);
     }
 
 
@@ -36,12 +57,19 @@ public class JsonDestination implements Destination {
         output.raw('"');
         context.writeEscaped(output, value);
         output.raw('"');
+        completeValue();
     }
 
 
+    private void completeValue() {
+        if (jsonScopes.isRoot()) context.recycle(); // The root value is complete, return the buffer until the next one
+    }
+
     private void verifyWriteValue() {
         switch (jsonScopes.beforeWriteValue()) {
-            case NeedsNameSeparator -> output.raw(':');
+            case NeedsNameSeparator -> {
+                // Already written with the name
+            }
             case NeedsRootSeparator -> output.raw(' ');
             case NeedsValueSeparator -> output.raw(',');
             case ExpectedName -> throw new InvalidJsonException("Expected name before value");
@@ -69,6 +97,7 @@ public class JsonDestination implements Destination {
     private void closeScope(JsonScope scope) {
         verifyCloseScope(scope);
         output.raw(scope.closeChar());
+        completeValue();
     }
 
 
@@ -96,7 +125,7 @@ public class JsonDestination implements Destination {
     @Override
     public void name(String name) {
         verifyWriteName();
-        writeString(name);
+        context.writeName(output, name);
     }
 
 
@@ -116,25 +145,29 @@ public class JsonDestination implements Destination {
     @Override
     public void value(int value) {
         verifyWriteValue();
-        output.raw(Integer.toString(value, 10));
+        context.writeInt(output, value);
+        completeValue();
     }
 
     @Override
     public void value(long value) {
         verifyWriteValue();
-        output.raw(Long.toString(value));
+        context.writeLong(output, value);
+        completeValue();
     }
 
     @Override
     public void value(float value) {
         verifyWriteValue();
-        output.raw(Float.toString(value));
+        context.writeFloat(output, value);
+        completeValue();
     }
 
     @Override
     public void value(double value) {
         verifyWriteValue();
-        output.raw(Double.toString(value));
+        context.writeDouble(output, value);
+        completeValue();
     }
 
     @Override
@@ -154,6 +187,37 @@ public class JsonDestination implements Destination {
         verifyWriteValue();
         context.writeLiteralNull(output);
     }
+
+    @Override
+    public void value(Source source) {
+        if (cache == null || !isCacheable(source)) {
+            source.writeTo(this);
+            return;
+        }
+
+        verifyWriteValue();
+        char[] encoded = (char[]) cache.get(FORMAT, source);
+        if (encoded == null) {
+            // Encode the collection on its own, so it can be copied as a whole from now on
+            CharArrayWriter writer = new CharArrayWriter();
+            source.writeTo(new JsonDestination(WriterOutput.create(writer), context, JsonScopes.root(), null));
+            encoded = writer.toCharArray();
+            cache.put(FORMAT, source, encoded, encoded.length);
+        }
+        output.raw(encoded, 0, encoded.length);
+        completeValue();
+    }
+
+    /**
+     * Only collections storing their values in memory are cached.
+     * Views on other data, like overlays and lazily decoded collections, would keep that data reachable from the cache.
+     */
+    private static boolean isCacheable(Source source) {
+        return source instanceof MemoryDictElement || source instanceof ArrayDictElement
+            || source instanceof ShapedDictElement || source instanceof HashTrieDictElement
+            || source instanceof MemoryListElement || source instanceof PrimitiveListElement
+            || source instanceof VectorListElement;
+    }
 }
 
 /*
@@ -0,0 +1,75 @@
+package io.github.thegatesdev.maple.io.json.impl;
+
+import java.util.concurrent.*;
+
+/**
+ * A cache of serialized object member names, shared by all JSON destinations.
+ * <p>
+ * Each fragment holds the quoted and escaped name followed by the name separator,
+ * so a cached name is written with a single output call.
+ * The cache is bounded, and simply starts over when it is full.
+ *
+ * @author Timar Karels
+ */
+final class JsonNameCache {
+
+    private static final int MAX_ENTRIES = 4096;
+    private static final int MAX_NAME_LENGTH = 64;
+
+    private static final ConcurrentHashMap<String, char[]> FRAGMENTS = new ConcurrentHashMap<>();
+
+
+    private JsonNameCache() {
+    }
+
+
+    /**
+     * Get the serialized fragment for the given name.
+     *
+     * @return the fragment, or {@code null} if the name is too long to be cached
+     */
+    static char[] fragment(String name) {
+        char[] fragment = FRAGMENTS.get(name);
+        if (fragment != null) return fragment;
+        if (name.length() > MAX_NAME_LENGTH) return null;
+
+        fragment = encode(name);
+        // Tracking usage would cost more than it saves, names that are still in use return quickly
+        if (FRAGMENTS.size() >= MAX_ENTRIES) FRAGMENTS.clear();
+        char[] existing = FRAGMENTS.putIfAbsent(name, fragment);
+        return existing == null ? fragment : existing; // Other thread was faster, use that one instead.
+    }
+
+
+    private static char[] encode(String name) {
+        StringBuilder builder = new StringBuilder(name.length() + 3);
+        builder.append('"');
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            char[] escape = JsonWriteContext.escape(c);
+            if (escape == null) builder.append(c);
+            else builder.append(escape);
+        }
+        builder.append('"').append(':');
+
+        char[] fragment = new char[builder.length()];
+        builder.getChars(0, fragment.length, fragment, 0);
+        return fragment;
+    }
+}
+
+/*
+Copyright 2024 Timar Karels
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
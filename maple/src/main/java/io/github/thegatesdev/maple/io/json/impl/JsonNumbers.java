@@ -0,0 +1,214 @@
+package io.github.thegatesdev.maple.io.json.impl;
+
+import io.github.thegatesdev.maple.io.*;
+
+import java.math.*;
+
+/**
+ * Number handling shared by the JSON sources and the write context.
+ * The sources accumulate the digits of a number themselves, these methods decide what to make of them.
+ * The format methods write numbers straight into a character buffer, in the same form as their {@code toString}.
+ *
+ * @author Timar Karels
+ */
+final class JsonNumbers {
+
+    /**
+     * The amount of decimal digits that can be accumulated in a long without overflowing.
+     */
+    static final int MAX_LONG_DIGITS = 18;
+
+    /**
+     * The maximum amount of characters written by the format methods.
+     */
+    static final int MAX_FORMAT_LENGTH = 32;
+
+    private static final long MAX_EXACT_SIGNIFICAND = 1L << 53;
+
+    // Small enough that only a single decimal of each length can round to the formatted value
+    private static final double MAX_UNIQUE_DOUBLE_DIGITS = 0x1p50;
+    private static final float MAX_UNIQUE_FLOAT_DIGITS = 0x1p21f;
+
+    // The range in which toString uses plain notation instead of computerized scientific notation
+    private static final double MIN_PLAIN = 1e-3;
+    private static final double MAX_PLAIN = 1e7;
+    private static final double[] EXACT_POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final float[] EXACT_FLOAT_POWERS_OF_TEN = {
+        1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f
+    };
+
+
+    private JsonNumbers() {
+    }
+
+
+    /**
+     * Write an integer value using the smallest fitting representation.
+     */
+    static void writeInteger(Destination destination, long value) {
+        if ((int) value == value) destination.value((int) value);
+        else destination.value(value);
+    }
+
+    /**
+     * Write an integer value that did not fit the accumulator, from its textual form.
+     */
+    static void writeInteger(Destination destination, String text) {
+        BigInteger value = new BigInteger(text);
+        if (value.bitLength() < Long.SIZE) writeInteger(destination, value.longValue());
+        else destination.value(value);
+    }
+
+    /**
+     * Write a decimal value from its accumulated significand, if the result can be computed exactly.
+     *
+     * @param significand the accumulated digits, or a negative number if they did not fit
+     * @param exponent    the power of ten to apply to the significand
+     * @param negative    whether the number is negative
+     * @return {@code true} if the value was written, {@code false} if the textual form is needed
+     */
+    static boolean writeExactDecimal(Destination destination, long significand, int exponent, boolean negative) {
+        if (significand < 0 || significand > MAX_EXACT_SIGNIFICAND || exponent < -22 || exponent > 22) return false;
+        // Both operands are exact, so IEEE arithmetic rounds the result correctly (Clinger's fast path).
+        double value = exponent < 0
+            ? significand / EXACT_POWERS_OF_TEN[-exponent]
+            : significand * EXACT_POWERS_OF_TEN[exponent];
+        destination.value(negative ? -value : value);
+        return true;
+    }
+
+    /**
+     * Write a decimal value from its textual form.
+     * Values out of the range of a double are written as a big decimal.
+     */
+    static void writeDecimal(Destination destination, String text) {
+        double value = Double.parseDouble(text);
+        if (Double.isInfinite(value)) destination.value(new BigDecimal(text));
+        else destination.value(value);
+    }
+
+
+    /**
+     * Format a long value, like {@link Long#toString(long)}.
+     *
+     * @return the end offset of the written characters
+     */
+    static int formatLong(long value, char[] buffer, int offset) {
+        boolean negative = value < 0;
+        if (!negative) value = -value; // Negative values have a larger range, so MIN_VALUE needs no special case
+
+        int digits = 1;
+        for (long bound = -10; digits < 19 && value <= bound; bound *= 10) digits++;
+
+        int end = offset + digits + (negative ? 1 : 0);
+        int position = end;
+        do {
+            long quotient = value / 10;
+            buffer[--position] = (char) ('0' + quotient * 10 - value);
+            value = quotient;
+        } while (value != 0);
+        if (negative) buffer[--position] = '-';
+        return end;
+    }
+
+    /**
+     * Format a double value, like {@link Double#toString(double)}, if it is in the range written in plain notation.
+     * <p>
+     * The shortest decimal that rounds back to the value is found by scaling with increasing powers of ten,
+     * until the nearest integer divided by the same power gives back the value exactly.
+     *
+     * @return the end offset of the written characters, or {@code -1} if the value was not written
+     */
+    static int formatDouble(double value, char[] buffer, int offset) {
+        if (value == 0) return formatZero(Double.doubleToRawLongBits(value) < 0, buffer, offset);
+        double magnitude = Math.abs(value);
+        if (!(magnitude >= MIN_PLAIN && magnitude < MAX_PLAIN)) return -1; // Also excludes NaN
+
+        for (int scale = 0; scale < EXACT_POWERS_OF_TEN.length; scale++) {
+            double power = EXACT_POWERS_OF_TEN[scale];
+            double scaled = Math.rint(magnitude * power);
+            if (scaled >= MAX_UNIQUE_DOUBLE_DIGITS) return -1;
+            // Both operands are exact, so the division is correctly rounded
+            if (scaled / power == magnitude) return formatDecimal((long) scaled, scale, value < 0, buffer, offset);
+        }
+        return -1;
+    }
+
+    /**
+     * Format a float value, like {@link Float#toString(float)}, if it is in the range written in plain notation.
+     *
+     * @return the end offset of the written characters, or {@code -1} if the value was not written
+     * @see #formatDouble(double, char[], int)
+     */
+    static int formatFloat(float value, char[] buffer, int offset) {
+        if (value == 0) return formatZero(Float.floatToRawIntBits(value) < 0, buffer, offset);
+        float magnitude = Math.abs(value);
+        if (!(magnitude >= MIN_PLAIN && magnitude < MAX_PLAIN)) return -1;
+
+        for (int scale = 0; scale < EXACT_FLOAT_POWERS_OF_TEN.length; scale++) {
+            float power = EXACT_FLOAT_POWERS_OF_TEN[scale];
+            float scaled = (float) Math.rint((double) magnitude * power);
+            if (scaled >= MAX_UNIQUE_FLOAT_DIGITS) return -1;
+            if (scaled / power == magnitude) return formatDecimal((long) scaled, scale, value < 0, buffer, offset);
+        }
+        return -1;
+    }
+
+
+    private static int formatZero(boolean negative, char[] buffer, int offset) {
+        if (negative) buffer[offset++] = '-';
+        buffer[offset++] = '0';
+        buffer[offset++] = '.';
+        buffer[offset++] = '0';
+        return offset;
+    }
+
+    private static int formatDecimal(long unscaled, int scale, boolean negative, char[] buffer, int offset) {
+        if (negative) buffer[offset++] = '-';
+        if (scale == 0) {
+            offset = formatLong(unscaled, buffer, offset);
+            buffer[offset++] = '.';
+            buffer[offset++] = '0';
+            return offset;
+        }
+
+        int digits = 1;
+        for (long bound = 10; digits < 18 && unscaled >= bound; bound *= 10) digits++;
+        if (digits <= scale) {
+            buffer[offset++] = '0';
+            buffer[offset++] = '.';
+            for (int i = digits; i < scale; i++) buffer[offset++] = '0';
+            return formatLong(unscaled, buffer, offset);
+        }
+
+        // Write the fraction digits from the end, then the integer digits before the point
+        int end = offset + digits + 1;
+        int position = end;
+        for (int i = 0; i < scale; i++) {
+            buffer[--position] = (char) ('0' + unscaled % 10);
+            unscaled /= 10;
+        }
+        buffer[--position] = '.';
+        formatLong(unscaled, buffer, offset);
+        return end;
+    }
+}
+
+/*
+Copyright 2024 Timar Karels
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
@@ -0,0 +1,340 @@
+package io.github.thegatesdev.maple.io.json.impl;
+
+import io.github.thegatesdev.maple.exception.*;
+import io.github.thegatesdev.maple.io.*;
+
+import java.io.*;
+import java.util.*;
+
+public final class JsonSource implements Source {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final char[] LITERAL_TRUE = "true".toCharArray();
+    private static final char[] LITERAL_FALSE = "false".toCharArray();
+    private static final char[] LITERAL_NULL = "null".toCharArray();
+
+    private final Reader reader;
+    private final char[] buffer;
+    private int position, limit;
+    private long consumed;
+
+    // Reused for strings spanning multiple buffer fills, strings containing escapes, and number text
+    private char[] scratch = new char[64];
+    private int scratchLength;
+
+    // The scope stack, 'true' for an object scope and 'false' for an array scope
+    private boolean[] scopes = new boolean[16];
+    private int depth;
+
+    private boolean read = false;
+
+
+    private JsonSource(Reader reader, char[] buffer) {
+        this.reader = reader;
+        this.buffer = buffer;
+    }
+
+    public static Source create(Reader reader) {
+        Objects.requireNonNull(reader, "given reader is null");
+
+        return new JsonSource(reader, new char[BUFFER_SIZE]);
+    }
+
+
+    @Override
+    public void writeTo(Destination destination) {
+        Objects.requireNonNull(destination, "given destination is null");
+        if (read) throw new IllegalStateException("JSON source was already read");
+        read = true;
+
+        int c = nextToken();
+        if (c == -1) throw unexpected(c, "value");
+        do {
+            readValue(destination, c);
+            c = nextToken();
+        } while (c != -1);
+    }
+
+
+    private void readValue(Destination destination, int c) {
+        while (true) {
+            switch (c) {
+                case '{' -> {
+                    destination.openObject();
+                    c = nextToken();
+                    if (c == '}') {
+                        destination.closeObject();
+                        break;
+                    }
+                    push(true);
+                    readName(destination, c);
+                    c = nextToken();
+                    continue;
+                }
+                case '[' -> {
+                    destination.openArray();
+                    c = nextToken();
+                    if (c == ']') {
+                        destination.closeArray();
+                        break;
+                    }
+                    push(false);
+                    continue;
+                }
+                case '"' -> destination.value(readString());
+                case 't' -> {
+                    readLiteral(LITERAL_TRUE);
+                    destination.value(true);
+                }
+                case 'f' -> {
+                    readLiteral(LITERAL_FALSE);
+                    destination.value(false);
+                }
+                case 'n' -> {
+                    readLiteral(LITERAL_NULL);
+                    destination.valueNull();
+                }
+                default -> readNumber(destination, c);
+            }
+
+            // A value was completed, close the finished scopes until the next value is found
+            while (true) {
+                if (depth == 0) return;
+                boolean inObject = scopes[depth - 1];
+                c = nextToken();
+                if (c == ',') {
+                    c = nextToken();
+                    if (inObject) {
+                        readName(destination, c);
+                        c = nextToken();
+                    }
+                    break;
+                }
+                if (inObject) {
+                    if (c != '}') throw unexpected(c, "',' or '}'");
+                    destination.closeObject();
+                } else {
+                    if (c != ']') throw unexpected(c, "',' or ']'");
+                    destination.closeArray();
+                }
+                depth--;
+            }
+        }
+    }
+
+    private void readName(Destination destination, int c) {
+        if (c != '"') throw unexpected(c, "name");
+        String name = readString();
+        c = nextToken();
+        if (c != ':') throw unexpected(c, "':'");
+        destination.name(name);
+    }
+
+    private String readString() {
+        scratchLength = 0;
+        while (true) {
+            int start = position;
+            char c = 0;
+            while (position < limit && (c = buffer[position]) != '"' && c != '\\' && c >= 0x20) position++;
+
+            if (position == limit) {
+                appendScratch(buffer, start, position - start);
+                if (!fill()) throw error("Unterminated string");
+                continue;
+            }
+            position++;
+            if (c == '"') {
+                // Most strings fit in the buffer without escapes, build those straight from the buffer
+                if (scratchLength == 0) return new String(buffer, start, position - 1 - start);
+                appendScratch(buffer, start, position - 1 - start);
+                return new String(scratch, 0, scratchLength);
+            }
+            appendScratch(buffer, start, position - 1 - start);
+            if (c == '\\') appendScratch(readEscape());
+            else throw error("Unescaped control character in string");
+        }
+    }
+
+    private char readEscape() {
+        int c = next();
+        return switch (c) {
+            case '"', '\\', '/' -> (char) c;
+            case 'b' -> '\b';
+            case 'f' -> '\f';
+            case 'n' -> '\n';
+            case 'r' -> '\r';
+            case 't' -> '\t';
+            case 'u' -> {
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = hexValue(c = next());
+                    if (digit < 0) throw unexpected(c, "hex digit");
+                    value = value << 4 | digit;
+                }
+                yield (char) value;
+            }
+            default -> throw unexpected(c, "escape sequence");
+        };
+    }
+
+    private void readLiteral(char[] literal) {
+        for (int i = 1; i < literal.length; i++) {
+            int c = next();
+            if (c != literal[i]) throw unexpected(c, "'" + new String(literal) + "'");
+        }
+    }
+
+    private void readNumber(Destination destination, int c) {
+        scratchLength = 0;
+        boolean negative = c == '-';
+        if (negative) {
+            appendScratch('-');
+            c = next();
+        }
+
+        long significand = 0;
+        int digits = 0;
+        if (c == '0') {
+            appendScratch('0');
+            digits++;
+            if (isDigit(c = next())) throw error("Leading zeros are not allowed");
+        } else {
+            if (c < '1' || c > '9') throw unexpected(c, "value");
+            do {
+                appendScratch((char) c);
+                significand = significand * 10 + (c - '0');
+                digits++;
+            } while (isDigit(c = next()));
+        }
+
+        int exponent = 0;
+        boolean decimal = false;
+        if (c == '.') {
+            decimal = true;
+            appendScratch('.');
+            if (!isDigit(c = next())) throw unexpected(c, "digit");
+            do {
+                appendScratch((char) c);
+                significand = significand * 10 + (c - '0');
+                digits++;
+                exponent--;
+            } while (isDigit(c = next()));
+        }
+        if (c == 'e' || c == 'E') {
+            decimal = true;
+            appendScratch('e');
+            boolean negativeExponent = false;
+            c = next();
+            if (c == '-' || c == '+') {
+                negativeExponent = c == '-';
+                appendScratch((char) c);
+                c = next();
+            }
+            if (!isDigit(c)) throw unexpected(c, "digit");
+            int value = 0;
+            do {
+                appendScratch((char) c);
+                if (value < 100_000) value = value * 10 + (c - '0'); // Anything larger is out of range anyway
+            } while (isDigit(c = next()));
+            exponent += negativeExponent ? -value : value;
+        }
+        if (c != -1) position--; // The character after the number belongs to the next token
+
+        // Only the accumulated significand is needed for most numbers, the text is the fallback
+        if (!decimal) {
+            if (digits <= JsonNumbers.MAX_LONG_DIGITS)
+                JsonNumbers.writeInteger(destination, negative ? -significand : significand);
+            else JsonNumbers.writeInteger(destination, new String(scratch, 0, scratchLength));
+        } else if (digits > JsonNumbers.MAX_LONG_DIGITS
+            || !JsonNumbers.writeExactDecimal(destination, significand, exponent, negative)) {
+            JsonNumbers.writeDecimal(destination, new String(scratch, 0, scratchLength));
+        }
+    }
+
+
+    private int nextToken() {
+        while (true) {
+            if (position == limit && !fill()) return -1;
+            char c = buffer[position++];
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') return c;
+        }
+    }
+
+    private int next() {
+        if (position == limit && !fill()) return -1;
+        return buffer[position++];
+    }
+
+    private boolean fill() {
+        consumed += limit;
+        position = limit = 0;
+        try {
+            int count;
+            do {
+                count = reader.read(buffer, 0, buffer.length);
+            } while (count == 0);
+            if (count < 0) return false;
+            limit = count;
+            return true;
+        } catch (IOException e) {
+            throw new InputException(e);
+        }
+    }
+
+
+    private void push(boolean object) {
+        if (depth == scopes.length) scopes = Arrays.copyOf(scopes, depth * 2);
+        scopes[depth++] = object;
+    }
+
+    private void appendScratch(char c) {
+        if (scratchLength == scratch.length) scratch = Arrays.copyOf(scratch, scratchLength * 2);
+        scratch[scratchLength++] = c;
+    }
+
+    private void appendScratch(char[] source, int offset, int length) {
+        if (scratchLength + length > scratch.length)
+            scratch = Arrays.copyOf(scratch, Math.max(scratch.length * 2, scratchLength + length));
+        System.arraycopy(source, offset, scratch, scratchLength, length);
+        scratchLength += length;
+    }
+
+
+    private InvalidJsonException unexpected(int c, String expected) {
+        if (c == -1) return error("Unexpected end of input, expected " + expected);
+        return error("Unexpected character '" + (char) c + "', expected " + expected);
+    }
+
+    private InvalidJsonException error(String message) {
+        return new InvalidJsonException(message + " (at offset " + (consumed + position) + ")");
+    }
+
+
+    private static boolean isDigit(int c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static int hexValue(int c) {
+        if (c >= '0' && c <= '9') return c - '0';
+        c |= 0x20; // To lowercase
+        if (c >= 'a' && c <= 'f') return c - 'a' + 10;
+        return -1;
+    }
+}
+
+/*
+Copyright 2024 Timar Karels
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
@@ -11,25 +11,33 @@ public final class JsonWriteContext implements AutoCloseable {
     private static final char[] BUF_FALSE = "false".toCharArray();
     private static final char[] BUF_NULL = "null".toCharArray();
 
-    private static final char HIGHEST_HEX_CHAR = 0x1f;
+    // The escape sequence for each character that needs one, indexed by character
+    private static final char[][] ESCAPES = buildEscapes();
 
-    private static final char[] HEX_ESCAPES = buildHexEscapes();
-    private static final char[] TWO_CHAR_ESCAPES = buildTwoCharEscapes();
+    private static final int BUFFER_SIZE = JsonNumbers.MAX_FORMAT_LENGTH;
 
 
-    private final char[] escapeBuf;
-    private final char[] largeStringBuf;
+    private final BufferRecycler recycler; // Not present means the buffer is not managed
+    private char[] buffer;
 
-    // TODO store some object *interface* managing buffer reuse (optional, not present means not managed)
     private boolean closed = false;
 
-    public JsonWriteContext(char[] escapeBuf, char[] largeStringBuf) {
-        this.escapeBuf = escapeBuf;
-        this.largeStringBuf = largeStringBuf;
+    /**
+     * Create a context acquiring its buffer from the given recycler when needed.
+     * The buffer is returned on {@link #recycle()} and {@link #close()}.
+     *
+     * @param recycler the recycler to acquire the buffer from
+     */
+    public JsonWriteContext(BufferRecycler recycler) {
+        this.recycler = Objects.requireNonNull(recycler, "given recycler is null");
     }
 
+    /**
+     * Create a context with its own unmanaged buffer.
+     */
     public JsonWriteContext() {
-        this(buildEscapeBuffer(), new char[200]);
+        this.recycler = null;
+        this.buffer = new char[BUFFER_SIZE];
     }
 
 
@@ -39,115 +47,153 @@ public final class JsonWriteContext implements AutoCloseable {
         }
     }
 
+    private char[] buffer() {
+        ensureOpen();
+        char[] buffer = this.buffer;
+        if (buffer == null) buffer = this.buffer = recycler.acquire(BUFFER_SIZE);
+        return buffer;
+    }
+
+    /**
+     * Return the buffer to the recycler, if it is managed.
+     * The context stays usable, and acquires a new buffer when it is needed again.
+     */
+    public void recycle() {
+        if (recycler != null && buffer != null) {
+            recycler.release(buffer);
+            buffer = null;
+        }
+    }
+
     @Override
     public void close() {
         if (!closed) {
             closed = true;
+            recycle();
         }
     }
 
 
     public void writeEscaped(Output output, String value) {
-        int max = largeStringBuf.length;
-        int len = value.length();
-        int index = 0;
-
-        // The string can be any size, copy parts to a buffer and write from that
-        while (index < len) {
-            int count = Math.min(len - index, max);
-
-            value.getChars(index, index += count, largeStringBuf, 0);
-            writeEscaped(output, escapeBuf, largeStringBuf, 0, count);
+        ensureOpen();
+        int length = value.length();
+        int head = 0;
+
+        // Scan the string in place, writing runs of characters that need no escaping straight from it
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= ESCAPES.length || ESCAPES[c] == null) continue;
+
+            if (head < i) output.raw(value, head, i - head);
+            char[] escape = ESCAPES[c];
+            output.raw(escape, 0, escape.length);
+            head = i + 1;
         }
+
+        if (head == 0) output.raw(value); // Nothing was escaped, the common case
+        else if (head < length) output.raw(value, head, length - head);
     }
 
     public void writeEscaped(Output output, char[] inputBuffer, int offset, int lenght) {
         Objects.checkFromIndexSize(offset, lenght, inputBuffer.length);
-        writeEscaped(output, escapeBuf, inputBuffer, offset, lenght);
+        ensureOpen();
+        int end = offset + lenght;
+        int head = offset;
+
+        for (int i = offset; i < end; i++) {
+            char c = inputBuffer[i];
+            if (c >= ESCAPES.length || ESCAPES[c] == null) continue;
+
+            if (head < i) output.raw(inputBuffer, head, i - head);
+            char[] escape = ESCAPES[c];
+            output.raw(escape, 0, escape.length);
+            head = i + 1;
+        }
+
+        if (head < end) output.raw(inputBuffer, head, end - head);
     }
 
 
-    public void writeLiteralTrue(Output output) {
-        output.raw(BUF_TRUE, 0, 4);
+    /**
+     * Write an object member name, followed by the name separator.
+     * Names are cached in their serialized form, so repeated names are not escaped again.
+     */
+    public void writeName(Output output, String name) {
+        char[] fragment = JsonNameCache.fragment(name);
+        if (fragment != null) {
+            ensureOpen();
+            output.raw(fragment, 0, fragment.length);
+            return;
+        }
+        output.raw('"');
+        writeEscaped(output, name);
+        output.raw('"');
+        output.raw(':');
     }
 
-    public void writeLiteralFalse(Output output) {
-        output.raw(BUF_FALSE, 0, 5);
+
+    public void writeInt(Output output, int value) {
+        writeLong(output, value);
     }
 
-    public void writeLiteralNull(Output output) {
-        output.raw(BUF_NULL, 0, 4);
+    public void writeLong(Output output, long value) {
+        char[] buffer = buffer();
+        output.raw(buffer, 0, JsonNumbers.formatLong(value, buffer, 0));
     }
 
+    public void writeFloat(Output output, float value) {
+        char[] buffer = buffer();
+        int end = JsonNumbers.formatFloat(value, buffer, 0);
+        if (end < 0) output.raw(Float.toString(value)); // Scientific notation and non-finite values
+        else output.raw(buffer, 0, end);
+    }
 
-    private static void writeEscaped(Output output, char[] escapeBuf, char[] inputBuffer, int offset, int lenght) {
-        int head = offset;
+    public void writeDouble(Output output, double value) {
+        char[] buffer = buffer();
+        int end = JsonNumbers.formatDouble(value, buffer, 0);
+        if (end < 0) output.raw(Double.toString(value)); // Scientific notation and non-finite values
+        else output.raw(buffer, 0, end);
+    }
 
-        for (int i = head; i < lenght; i++) {
-            char currentChar = inputBuffer[i];
-            switch (currentChar) {
-                default -> {
-                    if (currentChar > HIGHEST_HEX_CHAR) continue;
-
-                    output.raw(inputBuffer, head, i - head); // Flush
-                    writeHex(output, escapeBuf, currentChar);
-                }
-                case '\"', '\\', '/' -> {
-                    output.raw(inputBuffer, head, i - head); // Flush
-                    writeTwoChar(output, escapeBuf, currentChar);
-                }
-                case '\b', '\t', '\n', '\f', '\r' -> {
-                    output.raw(inputBuffer, head, i - head); // Flush
-                    writeTwoChar(output, escapeBuf, TWO_CHAR_ESCAPES[currentChar]);
-                }
-            }
-            head = i + 1;
-        }
 
-        if (head < lenght) {
-            // Write the leftover data after the last escaped character
-            output.raw(inputBuffer, head, lenght - head);
-        }
+    public void writeLiteralTrue(Output output) {
+        output.raw(BUF_TRUE, 0, 4);
     }
 
-    private static void writeTwoChar(Output output, char[] escapeBuffer, char c) {
-        escapeBuffer[1] = c;
-        output.raw(escapeBuffer, 0, 2);
+    public void writeLiteralFalse(Output output) {
+        output.raw(BUF_FALSE, 0, 5);
     }
 
-    private static void writeHex(Output output, char[] escapeBuffer, char c) {
-        int index = c * 2;
-        escapeBuffer[6] = HEX_ESCAPES[index];
-        escapeBuffer[7] = HEX_ESCAPES[index + 1];
-        output.raw(escapeBuffer, 2, 6);
+    public void writeLiteralNull(Output output) {
+        output.raw(BUF_NULL, 0, 4);
     }
 
 
-    private static char[] buildHexEscapes() {
-        char[] hexChars = "0123456789ABCDEF".toCharArray();
-        char[] escapes = new char[(HIGHEST_HEX_CHAR) * 2];
-        for (int i = 0, c = 0; i < escapes.length; i += 2, c++) {
-            escapes[i] = hexChars[c >> 4];
-            escapes[i + 1] = hexChars[c & 0xF];
-        }
-        return escapes;
+    /**
+     * Get the escape sequence for the given character.
+     *
+     * @return the escape sequence, or {@code null} if the character does not need escaping
+     */
+    static char[] escape(char c) {
+        return c < ESCAPES.length ? ESCAPES[c] : null;
     }
 
-    private static char[] buildEscapeBuffer() {
-        return new char[]{
-            '\\', 0, // 0, 1: 2 character escapes
-            '\\', 'u', '0', '0', 0, 0, // 2, 7: 6 character escapes
-        };
-    }
 
-    private static char[] buildTwoCharEscapes() {
-        char[] buf = new char[14];
-        buf['\b'] = 'b';
-        buf['\t'] = 't';
-        buf['\n'] = 'n';
-        buf['\f'] = 'f';
-        buf['\r'] = 'r';
-        return buf;
+    private static char[][] buildEscapes() {
+        char[] hexChars = "0123456789ABCDEF".toCharArray();
+        char[][] escapes = new char['\\' + 1][];
+        for (char c = 0; c < 0x20; c++) {
+            escapes[c] = new char[]{'\\', 'u', '0', '0', hexChars[c >> 4], hexChars[c & 0xF]};
+        }
+        escapes['\b'] = new char[]{'\\', 'b'};
+        escapes['\t'] = new char[]{'\\', 't'};
+        escapes['\n'] = new char[]{'\\', 'n'};
+        escapes['\f'] = new char[]{'\\', 'f'};
+        escapes['\r'] = new char[]{'\\', 'r'};
+        escapes['"'] = new char[]{'\\', '"'};
+        escapes['\\'] = new char[]{'\\', '\\'};
+        escapes['/'] = new char[]{'\\', '/'};
+        return escapes;
     }
 }
 
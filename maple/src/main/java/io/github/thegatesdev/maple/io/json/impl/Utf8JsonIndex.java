@@ -0,0 +1,269 @@
+package io.github.thegatesdev.maple.io.json.impl;
+
+import io.github.thegatesdev.maple.exception.*;
+
+import java.util.*;
+
+/**
+ * A structural index of the direct members of a single JSON object or array, in UTF-8 encoded data.
+ * <p>
+ * Only the boundaries of the members are located, nested values are skipped without being parsed or validated.
+ * For objects, each member takes four offsets: key start, key end, value start and value end.
+ * For arrays, each member takes two offsets: value start and value end.
+ * Key offsets exclude the quotes, value ends are exclusive.
+ *
+ * @author Timar Karels
+ */
+public final class Utf8JsonIndex {
+
+    private final boolean object;
+    private final int[] offsets;
+    private final int count;
+    private final int start, end;
+
+
+    private Utf8JsonIndex(boolean object, int[] offsets, int count, int start, int end) {
+        this.object = object;
+        this.offsets = offsets;
+        this.count = count;
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Index the object or array starting at the given offset.
+     *
+     * @param json  the UTF-8 encoded data
+     * @param start the offset of the opening bracket
+     * @param limit the offset after which no data may be read
+     * @return the index of the object or array
+     * @throws InvalidJsonException if the structure is invalid
+     */
+    public static Utf8JsonIndex of(byte[] json, int start, int limit) {
+        Objects.requireNonNull(json, "given array is null");
+        Objects.checkFromToIndex(start, limit, json.length);
+
+        return new Scanner(json, start, limit).index();
+    }
+
+    /**
+     * Find the offset of the first value in the given data, skipping whitespace and a byte order mark.
+     *
+     * @param json  the UTF-8 encoded data
+     * @param start the offset to start from
+     * @param limit the offset after which no data may be read
+     * @return the offset of the first value
+     * @throws InvalidJsonException if there is no value
+     */
+    public static int valueStart(byte[] json, int start, int limit) {
+        boolean byteOrderMark = limit - start >= 3
+            && json[start] == (byte) 0xEF && json[start + 1] == (byte) 0xBB && json[start + 2] == (byte) 0xBF;
+        if (byteOrderMark) start += 3;
+        int position = skipWhitespace(json, start, limit);
+        if (position == limit) throw new InvalidJsonException("Unexpected end of input, expected value");
+        return position;
+    }
+
+    /**
+     * Find the exclusive end offset of the scalar value at the given offset.
+     *
+     * @param json  the UTF-8 encoded data
+     * @param start the offset of the value
+     * @param limit the offset after which no data may be read
+     * @return the end offset of the value
+     * @throws InvalidJsonException if the value is a string without end
+     */
+    public static int scalarEnd(byte[] json, int start, int limit) {
+        return new Scanner(json, start, limit).skipScalar(start);
+    }
+
+    /**
+     * Check that the given range only contains whitespace.
+     *
+     * @throws InvalidJsonException if the range contains anything else
+     */
+    public static void requireWhitespace(byte[] json, int start, int limit) {
+        int position = skipWhitespace(json, start, limit);
+        if (position != limit) throw new InvalidJsonException("Unexpected data after value (at offset " + position + ")");
+    }
+
+
+    public boolean isObject() {
+        return object;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Get the offset of the opening bracket of the indexed object or array.
+     */
+    public int start() {
+        return start;
+    }
+
+    /**
+     * Get the exclusive end offset of the indexed object or array.
+     */
+    public int end() {
+        return end;
+    }
+
+    public int valueStart(int member) {
+        return offsets[object ? member * 4 + 2 : member * 2];
+    }
+
+    public int valueEnd(int member) {
+        return offsets[object ? member * 4 + 3 : member * 2 + 1];
+    }
+
+    public int keyStart(int member) {
+        return offsets[member * 4];
+    }
+
+    public int keyEnd(int member) {
+        return offsets[member * 4 + 1];
+    }
+
+
+    private static int skipWhitespace(byte[] json, int position, int limit) {
+        while (position < limit) {
+            byte b = json[position];
+            if (b != ' ' && b != '\n' && b != '\r' && b != '\t') break;
+            position++;
+        }
+        return position;
+    }
+
+
+    private static final class Scanner {
+
+        private final byte[] json;
+        private final int start, limit;
+        private int[] offsets = new int[16];
+        private int size;
+
+
+        private Scanner(byte[] json, int start, int limit) {
+            this.json = json;
+            this.start = start;
+            this.limit = limit;
+        }
+
+
+        private Utf8JsonIndex index() {
+            byte open = peek(start);
+            if (open != '{' && open != '[') throw error("Expected object or array", start);
+            boolean object = open == '{';
+            byte close = object ? (byte) '}' : (byte) ']';
+
+            int position = skipWhitespace(json, start + 1, limit);
+            int count = 0;
+            if (peek(position) != close) {
+                while (true) {
+                    if (object) {
+                        if (peek(position) != '"') throw error("Expected name", position);
+                        int keyEnd = skipString(position);
+                        add(position + 1);
+                        add(keyEnd - 1);
+                        position = skipWhitespace(json, keyEnd, limit);
+                        if (peek(position) != ':') throw error("Expected ':'", position);
+                        position = skipWhitespace(json, position + 1, limit);
+                    }
+                    int valueEnd = skipValue(position);
+                    add(position);
+                    add(valueEnd);
+                    count++;
+
+                    position = skipWhitespace(json, valueEnd, limit);
+                    byte next = peek(position);
+                    if (next == close) break;
+                    if (next != ',') throw error("Expected ',' or '" + (char) close + "'", position);
+                    position = skipWhitespace(json, position + 1, limit);
+                }
+            }
+            return new Utf8JsonIndex(object, Arrays.copyOf(offsets, size), count, start, position + 1);
+        }
+
+        private int skipValue(int position) {
+            return switch (peek(position)) {
+                case '"' -> skipString(position);
+                case '{', '[' -> skipContainer(position);
+                default -> skipScalar(position);
+            };
+        }
+
+        private int skipString(int position) {
+            position++;
+            while (true) {
+                position = Utf8Scanning.findQuoteOrBackslash(json, position, limit);
+                if (position >= limit) throw error("Unterminated string", position);
+                if (json[position] == '"') return position + 1;
+                position += 2; // Skip the escaped character
+            }
+        }
+
+        private int skipContainer(int position) {
+            int depth = 0;
+            while (true) {
+                position = Utf8Scanning.findStructural(json, position, limit);
+                if (position >= limit) throw error("Unterminated object or array", position);
+                switch (json[position]) {
+                    case '"' -> {
+                        position = skipString(position);
+                        continue;
+                    }
+                    case '{', '[' -> depth++;
+                    default -> {
+                        if (--depth == 0) return position + 1;
+                    }
+                }
+                position++;
+            }
+        }
+
+        private int skipScalar(int position) {
+            if (peek(position) == '"') return skipString(position);
+            int begin = position;
+            while (position < limit) {
+                byte b = json[position];
+                if (b == ',' || b == '}' || b == ']' || b == ' ' || b == '\n' || b == '\r' || b == '\t') break;
+                position++;
+            }
+            if (position == begin) throw error("Expected value", position);
+            return position;
+        }
+
+
+        private byte peek(int position) {
+            if (position >= limit) throw error("Unexpected end of input", position);
+            return json[position];
+        }
+
+        private void add(int offset) {
+            if (size == offsets.length) offsets = Arrays.copyOf(offsets, size * 2);
+            offsets[size++] = offset;
+        }
+
+        private static InvalidJsonException error(String message, int position) {
+            return new InvalidJsonException(message + " (at offset " + position + ")");
+        }
+    }
+}
+
+/*
+Copyright 2024 Timar Karels
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
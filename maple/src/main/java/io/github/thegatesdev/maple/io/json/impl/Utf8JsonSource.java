@@ -0,0 +1,511 @@
+package io.github.thegatesdev.maple.io.json.impl;
+
+import io.github.thegatesdev.maple.exception.*;
+import io.github.thegatesdev.maple.io.*;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+
+public final class Utf8JsonSource implements Source {
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int FILE_BUFFER_SIZE = 65536;
+
+    private static final byte[] LITERAL_TRUE = "true".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] LITERAL_FALSE = "false".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] LITERAL_NULL = "null".getBytes(StandardCharsets.US_ASCII);
+
+    private final ByteFeed feed;
+    private final byte[] buffer;
+    private int position, limit;
+    private long consumed;
+
+    // Only used for strings spanning multiple buffer fills, strings containing escapes, and number text
+    private char[] scratch;
+    private int scratchLength;
+
+    // The bytes from tokensStart that are not whitespace, found 64 at a time ahead of the reader
+    private long tokens;
+    private int tokensStart, tokensEnd;
+
+    // The scope stack, 'true' for an object scope and 'false' for an array scope
+    private boolean[] scopes = new boolean[16];
+    private int depth;
+
+    private boolean read = false;
+
+
+    private Utf8JsonSource(ByteFeed feed, byte[] buffer, int position, int limit) {
+        this.feed = feed;
+        this.buffer = buffer;
+        this.position = position;
+        this.limit = limit;
+        this.consumed = -position;
+    }
+
+    public static Source create(byte[] bytes) {
+        Objects.requireNonNull(bytes, "given array is null");
+
+        return new Utf8JsonSource(null, bytes, 0, bytes.length);
+    }
+
+    public static Source create(byte[] bytes, int offset, int length) {
+        Objects.requireNonNull(bytes, "given array is null");
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+
+        return new Utf8JsonSource(null, bytes, offset, offset + length);
+    }
+
+    public static Source create(ByteBuffer byteBuffer) {
+        Objects.requireNonNull(byteBuffer, "given buffer is null");
+
+        if (byteBuffer.hasArray()) {
+            // Read straight from the backing array
+            int offset = byteBuffer.arrayOffset() + byteBuffer.position();
+            return new Utf8JsonSource(null, byteBuffer.array(), offset, offset + byteBuffer.remaining());
+        }
+        ByteBuffer view = byteBuffer.duplicate();
+        return new Utf8JsonSource(buffer -> {
+            if (!view.hasRemaining()) return -1;
+            int count = Math.min(view.remaining(), buffer.length);
+            view.get(buffer, 0, count);
+            return count;
+        }, new byte[BUFFER_SIZE], 0, 0);
+    }
+
+    public static Source create(InputStream stream) {
+        Objects.requireNonNull(stream, "given stream is null");
+
+        return new Utf8JsonSource(buffer -> stream.read(buffer, 0, buffer.length), new byte[BUFFER_SIZE], 0, 0);
+    }
+
+    public static Source create(Path path) {
+        Objects.requireNonNull(path, "given path is null");
+
+        return new Utf8JsonSource(new FileFeed(path), new byte[FILE_BUFFER_SIZE], 0, 0);
+    }
+
+
+    @Override
+    public void writeTo(Destination destination) {
+        Objects.requireNonNull(destination, "given destination is null");
+        if (read) throw new IllegalStateException("JSON source was already read");
+        read = true;
+
+        try {
+            skipByteOrderMark();
+            int c = nextToken();
+            if (c == -1) throw unexpected(c, "value");
+            do {
+                readValue(destination, c);
+                c = nextToken();
+            } while (c != -1);
+        } finally {
+            if (feed != null) closeFeed();
+        }
+    }
+
+
+    private void readValue(Destination destination, int c) {
+        while (true) {
+            switch (c) {
+                case '{' -> {
+                    destination.openObject();
+                    c = nextToken();
+                    if (c == '}') {
+                        destination.closeObject();
+                        break;
+                    }
+                    push(true);
+                    readName(destination, c);
+                    c = nextToken();
+                    continue;
+                }
+                case '[' -> {
+                    destination.openArray();
+                    c = nextToken();
+                    if (c == ']') {
+                        destination.closeArray();
+                        break;
+                    }
+                    push(false);
+                    continue;
+                }
+                case '"' -> destination.value(readString());
+                case 't' -> {
+                    readLiteral(LITERAL_TRUE);
+                    destination.value(true);
+                }
+                case 'f' -> {
+                    readLiteral(LITERAL_FALSE);
+                    destination.value(false);
+                }
+                case 'n' -> {
+                    readLiteral(LITERAL_NULL);
+                    destination.valueNull();
+                }
+                default -> readNumber(destination, c);
+            }
+
+            // A value was completed, close the finished scopes until the next value is found
+            while (true) {
+                if (depth == 0) return;
+                boolean inObject = scopes[depth - 1];
+                c = nextToken();
+                if (c == ',') {
+                    c = nextToken();
+                    if (inObject) {
+                        readName(destination, c);
+                        c = nextToken();
+                    }
+                    break;
+                }
+                if (inObject) {
+                    if (c != '}') throw unexpected(c, "',' or '}'");
+                    destination.closeObject();
+                } else {
+                    if (c != ']') throw unexpected(c, "',' or ']'");
+                    destination.closeArray();
+                }
+                depth--;
+            }
+        }
+    }
+
+    private void readName(Destination destination, int c) {
+        if (c != '"') throw unexpected(c, "name");
+        String name = readString();
+        c = nextToken();
+        if (c != ':') throw unexpected(c, "':'");
+        destination.name(name);
+    }
+
+    private String readString() {
+        int start = position;
+        int stop = Utf8Scanning.findStringStop(buffer, start, limit);
+        if (stop < limit && buffer[stop] == '"') {
+            // The common case, the string is in the buffer and has no escapes
+            if (Utf8Scanning.isAscii(buffer, start, stop)) {
+                position = stop + 1;
+                return new String(buffer, start, stop - start, StandardCharsets.ISO_8859_1); // No decoding needed
+            }
+            // The decoder replaces malformed input, so it is only used once the input is known to be valid
+            if (Utf8Scanning.isValidUtf8(buffer, start, stop)) {
+                position = stop + 1;
+                return new String(buffer, start, stop - start, StandardCharsets.UTF_8);
+            }
+        }
+        return readStringSlow();
+    }
+
+    private String readStringSlow() {
+        scratchLength = 0;
+        while (true) {
+            int start = position;
+            byte b = 0;
+            while (position < limit && (b = buffer[position]) >= 0x20 && b != '"' && b != '\\') position++;
+            appendAscii(buffer, start, position - start);
+
+            if (position == limit) {
+                if (!fill()) throw error("Unterminated string");
+                continue;
+            }
+            position++;
+            if (b == '"') return new String(scratch, 0, scratchLength);
+            if (b == '\\') appendScratch(readEscape());
+            else if (b >= 0) throw error("Unescaped control character in string");
+            else readCodePoint(b);
+        }
+    }
+
+    private void readCodePoint(byte lead) {
+        int codePoint, continuations, minimum;
+        if ((lead & 0xE0) == 0xC0) {
+            codePoint = lead & 0x1F;
+            continuations = 1;
+            minimum = 0x80;
+        } else if ((lead & 0xF0) == 0xE0) {
+            codePoint = lead & 0x0F;
+            continuations = 2;
+            minimum = 0x800;
+        } else if ((lead & 0xF8) == 0xF0) {
+            codePoint = lead & 0x07;
+            continuations = 3;
+            minimum = 0x10000;
+        } else throw error("Invalid UTF-8 lead byte");
+
+        for (int i = 0; i < continuations; i++) {
+            int c = next();
+            if ((c & 0xC0) != 0x80) throw error("Invalid UTF-8 continuation byte");
+            codePoint = codePoint << 6 | c & 0x3F;
+        }
+        if (!Utf8Scanning.isValidCodePoint(codePoint, minimum)) throw error("Invalid UTF-8 code point");
+        if (codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+            appendScratch((char) codePoint);
+        } else {
+            appendScratch(Character.highSurrogate(codePoint));
+            appendScratch(Character.lowSurrogate(codePoint));
+        }
+    }
+
+    private char readEscape() {
+        int c = next();
+        return switch (c) {
+            case '"', '\\', '/' -> (char) c;
+            case 'b' -> '\b';
+            case 'f' -> '\f';
+            case 'n' -> '\n';
+            case 'r' -> '\r';
+            case 't' -> '\t';
+            case 'u' -> {
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = hexValue(c = next());
+                    if (digit < 0) throw unexpected(c, "hex digit");
+                    value = value << 4 | digit;
+                }
+                yield (char) value;
+            }
+            default -> throw unexpected(c, "escape sequence");
+        };
+    }
+
+    private void readLiteral(byte[] literal) {
+        for (int i = 1; i < literal.length; i++) {
+            int c = next();
+            if (c != literal[i]) throw unexpected(c, "'" + new String(literal, StandardCharsets.US_ASCII) + "'");
+        }
+    }
+
+    private void readNumber(Destination destination, int c) {
+        scratchLength = 0;
+        boolean negative = c == '-';
+        if (negative) {
+            appendScratch('-');
+            c = next();
+        }
+
+        long significand = 0;
+        int digits = 0;
+        if (c == '0') {
+            appendScratch('0');
+            digits++;
+            if (isDigit(c = next())) throw error("Leading zeros are not allowed");
+        } else {
+            if (c < '1' || c > '9') throw unexpected(c, "value");
+            do {
+                appendScratch((char) c);
+                significand = significand * 10 + (c - '0');
+                digits++;
+            } while (isDigit(c = next()));
+        }
+
+        int exponent = 0;
+        boolean decimal = false;
+        if (c == '.') {
+            decimal = true;
+            appendScratch('.');
+            if (!isDigit(c = next())) throw unexpected(c, "digit");
+            do {
+                appendScratch((char) c);
+                significand = significand * 10 + (c - '0');
+                digits++;
+                exponent--;
+            } while (isDigit(c = next()));
+        }
+        if (c == 'e' || c == 'E') {
+            decimal = true;
+            appendScratch('e');
+            boolean negativeExponent = false;
+            c = next();
+            if (c == '-' || c == '+') {
+                negativeExponent = c == '-';
+                appendScratch((char) c);
+                c = next();
+            }
+            if (!isDigit(c)) throw unexpected(c, "digit");
+            int value = 0;
+            do {
+                appendScratch((char) c);
+                if (value < 100_000) value = value * 10 + (c - '0'); // Anything larger is out of range anyway
+            } while (isDigit(c = next()));
+            exponent += negativeExponent ? -value : value;
+        }
+        if (c != -1) position--; // The character after the number belongs to the next token
+
+        // Only the accumulated significand is needed for most numbers, the text is the fallback
+        if (!decimal) {
+            if (digits <= JsonNumbers.MAX_LONG_DIGITS)
+                JsonNumbers.writeInteger(destination, negative ? -significand : significand);
+            else JsonNumbers.writeInteger(destination, new String(scratch, 0, scratchLength));
+        } else if (digits > JsonNumbers.MAX_LONG_DIGITS
+            || !JsonNumbers.writeExactDecimal(destination, significand, exponent, negative)) {
+            JsonNumbers.writeDecimal(destination, new String(scratch, 0, scratchLength));
+        }
+    }
+
+
+    private void skipByteOrderMark() {
+        if (position == limit && !fill()) return;
+        if (limit - position >= 3 && buffer[position] == (byte) 0xEF
+            && buffer[position + 1] == (byte) 0xBB && buffer[position + 2] == (byte) 0xBF) {
+            position += 3;
+        }
+    }
+
+    private int nextToken() {
+        if (position < limit && buffer[position] > ' ') return buffer[position++]; // Most tokens follow without whitespace
+        // Only called between tokens, so the next byte that is not whitespace starts the next token
+        while (limit - position >= Long.SIZE || position < tokensEnd) {
+            if (position >= tokensEnd || position < tokensStart) {
+                tokens = Utf8Scanning.findNonWhitespace(buffer, position);
+                tokensStart = position;
+                tokensEnd = position + Long.SIZE;
+            }
+            long remaining = tokens >>> position - tokensStart;
+            if (remaining != 0) {
+                position += Long.numberOfTrailingZeros(remaining);
+                return buffer[position++] & 0xFF;
+            }
+            position = tokensEnd;
+        }
+        while (true) {
+            if (position == limit && !fill()) return -1;
+            byte c = buffer[position++];
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') return c & 0xFF;
+        }
+    }
+
+    private int next() {
+        if (position == limit && !fill()) return -1;
+        return buffer[position++] & 0xFF;
+    }
+
+    private boolean fill() {
+        if (feed == null) return false;
+        consumed += limit;
+        position = limit = 0;
+        tokensStart = tokensEnd = 0;
+        try {
+            int count;
+            do {
+                count = feed.read(buffer);
+            } while (count == 0);
+            if (count < 0) return false;
+            limit = count;
+            return true;
+        } catch (IOException e) {
+            throw new InputException(e);
+        }
+    }
+
+
+    private void closeFeed() {
+        try {
+            feed.close();
+        } catch (IOException e) {
+            throw new InputException(e);
+        }
+    }
+
+
+    private void push(boolean object) {
+        if (depth == scopes.length) scopes = Arrays.copyOf(scopes, depth * 2);
+        scopes[depth++] = object;
+    }
+
+    private void ensureScratch(int length) {
+        if (scratch == null) scratch = new char[Math.max(64, length)];
+        else if (length > scratch.length) scratch = Arrays.copyOf(scratch, Math.max(scratch.length * 2, length));
+    }
+
+    private void appendScratch(char c) {
+        ensureScratch(scratchLength + 1);
+        scratch[scratchLength++] = c;
+    }
+
+    private void appendAscii(byte[] source, int offset, int length) {
+        ensureScratch(scratchLength + length);
+        for (int i = 0; i < length; i++) scratch[scratchLength + i] = (char) source[offset + i];
+        scratchLength += length;
+    }
+
+
+    private InvalidJsonException unexpected(int c, String expected) {
+        if (c == -1) return error("Unexpected end of input, expected " + expected);
+        if (c >= 0x80) return error("Unexpected byte 0x" + Integer.toHexString(c) + ", expected " + expected);
+        return error("Unexpected character '" + (char) c + "', expected " + expected);
+    }
+
+    private InvalidJsonException error(String message) {
+        return new InvalidJsonException(message + " (at offset " + (consumed + position) + ")");
+    }
+
+
+    private static boolean isDigit(int c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static int hexValue(int c) {
+        if (c >= '0' && c <= '9') return c - '0';
+        c |= 0x20; // To lowercase
+        if (c >= 'a' && c <= 'f') return c - 'a' + 10;
+        return -1;
+    }
+
+
+    @FunctionalInterface
+    private interface ByteFeed {
+        int read(byte[] buffer) throws IOException;
+
+        default void close() throws IOException {
+        }
+    }
+
+    /**
+     * Feeds the bytes of a file, reading them from its channel straight into the parse buffer.
+     * The parser works on a heap array, so mapping the file would only add a copy from the mapping into that array.
+     */
+    private static final class FileFeed implements ByteFeed {
+
+        private final Path path;
+        private FileChannel channel;
+
+
+        private FileFeed(Path path) {
+            this.path = path;
+        }
+
+
+        @Override
+        public int read(byte[] buffer) throws IOException {
+            if (channel == null) channel = FileChannel.open(path, StandardOpenOption.READ);
+            return channel.read(ByteBuffer.wrap(buffer));
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (channel != null) channel.close();
+        }
+    }
+}
+
+/*
+Copyright 2024 Timar Karels
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
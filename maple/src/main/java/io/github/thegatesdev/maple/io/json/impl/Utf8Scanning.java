@@ -0,0 +1,194 @@
+package io.github.thegatesdev.maple.io.json.impl;
+
+import java.lang.invoke.*;
+import java.nio.*;
+
+/**
+ * Scans UTF-8 encoded JSON data eight bytes at a time, using SIMD-within-a-register techniques.
+ * <p>
+ * Each word is tested for the bytes of interest with a few arithmetic operations,
+ * producing a mask with the high bit set for every matching byte.
+ * These masks may contain false positives above the first true match, but never below it,
+ * so only the lowest match in a mask is used.
+ * The whitespace scan is exact instead, so its mask can be used as a whole.
+ *
+ * @author Timar Karels
+ */
+final class Utf8Scanning {
+
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGHS = 0x8080808080808080L;
+    private static final long LOWS = 0x7F7F7F7F7F7F7F7FL;
+    // Moves the high bit of every byte, shifted down to its lowest bit, into the top byte, in order
+    private static final long GATHER = 0x0102040810204080L;
+
+    private static final long QUOTES = ONES * '"';
+    private static final long BACKSLASHES = ONES * '\\';
+    private static final long SPACES = ONES * 0x20;
+    private static final long TABS = ONES * '\t';
+    private static final long NEWLINES = ONES * '\n';
+    private static final long RETURNS = ONES * '\r';
+    private static final long OPEN_BRACES = ONES * '{';
+    private static final long CLOSE_BRACES = ONES * '}';
+
+
+    private Utf8Scanning() {
+    }
+
+
+    /**
+     * Find the first byte ending a run of plain string contents: a quote, a backslash or a control character.
+     *
+     * @return the offset of the first stop, or {@code limit} if there is none
+     */
+    static int findStringStop(byte[] bytes, int position, int limit) {
+        for (; position + Long.BYTES <= limit; position += Long.BYTES) {
+            long word = (long) LONGS.get(bytes, position);
+            long mask = equal(word, QUOTES) | equal(word, BACKSLASHES) | (word - SPACES & ~word & HIGHS);
+            if (mask != 0) return position + (Long.numberOfTrailingZeros(mask) >>> 3);
+        }
+        for (; position < limit; position++) {
+            byte b = bytes[position];
+            if (b == '"' || b == '\\' || (b >= 0 && b < 0x20)) break;
+        }
+        return position;
+    }
+
+    /**
+     * Find the first quote or backslash.
+     *
+     * @return the offset of the first quote or backslash, or {@code limit} if there is none
+     */
+    static int findQuoteOrBackslash(byte[] bytes, int position, int limit) {
+        for (; position + Long.BYTES <= limit; position += Long.BYTES) {
+            long word = (long) LONGS.get(bytes, position);
+            long mask = equal(word, QUOTES) | equal(word, BACKSLASHES);
+            if (mask != 0) return position + (Long.numberOfTrailingZeros(mask) >>> 3);
+        }
+        for (; position < limit; position++) {
+            byte b = bytes[position];
+            if (b == '"' || b == '\\') break;
+        }
+        return position;
+    }
+
+    /**
+     * Find the first quote or bracket.
+     *
+     * @return the offset of the first quote or bracket, or {@code limit} if there is none
+     */
+    static int findStructural(byte[] bytes, int position, int limit) {
+        for (; position + Long.BYTES <= limit; position += Long.BYTES) {
+            long word = (long) LONGS.get(bytes, position);
+            // Square brackets only differ from curly braces by the 0x20 bit
+            long folded = word | SPACES;
+            long mask = equal(word, QUOTES) | equal(folded, OPEN_BRACES) | equal(folded, CLOSE_BRACES);
+            if (mask != 0) return position + (Long.numberOfTrailingZeros(mask) >>> 3);
+        }
+        for (; position < limit; position++) {
+            byte b = bytes[position];
+            if (b == '"' || b == '{' || b == '}' || b == '[' || b == ']') break;
+        }
+        return position;
+    }
+
+    /**
+     * Find the bytes that are not whitespace in the 64 bytes starting at the given offset.
+     * Outside of strings these are exactly the tokens: brackets, colons, commas, and the bytes of strings, numbers and literals.
+     *
+     * @return a mask with bit {@code i} set if the byte at {@code position + i} is not whitespace
+     */
+    static long findNonWhitespace(byte[] bytes, int position) {
+        long result = 0;
+        for (int i = 0; i < Long.SIZE; i += Long.BYTES) {
+            long word = (long) LONGS.get(bytes, position + i);
+            long whitespace = zeroBytes(word ^ SPACES) | zeroBytes(word ^ NEWLINES)
+                              | zeroBytes(word ^ RETURNS) | zeroBytes(word ^ TABS);
+            result |= ((~whitespace & HIGHS) >>> 7) * GATHER >>> 56 << i;
+        }
+        return result;
+    }
+
+    /**
+     * Check whether the given range only contains ASCII bytes.
+     */
+    static boolean isAscii(byte[] bytes, int position, int limit) {
+        long bits = 0;
+        for (; position + Long.BYTES <= limit; position += Long.BYTES) bits |= (long) LONGS.get(bytes, position);
+        for (; position < limit; position++) bits |= bytes[position] & 0xFF;
+        return (bits & HIGHS) == 0;
+    }
+
+    /**
+     * Check whether the given range is well-formed UTF-8, rejecting overlong encodings, surrogates and code points above U+10FFFF.
+     */
+    static boolean isValidUtf8(byte[] bytes, int position, int limit) {
+        while (position < limit) {
+            int lead = bytes[position++];
+            if (lead >= 0) continue;
+
+            int codePoint, continuations, minimum;
+            if ((lead & 0xE0) == 0xC0) {
+                codePoint = lead & 0x1F;
+                continuations = 1;
+                minimum = 0x80;
+            } else if ((lead & 0xF0) == 0xE0) {
+                codePoint = lead & 0x0F;
+                continuations = 2;
+                minimum = 0x800;
+            } else if ((lead & 0xF8) == 0xF0) {
+                codePoint = lead & 0x07;
+                continuations = 3;
+                minimum = 0x10000;
+            } else return false;
+
+            if (limit - position < continuations) return false;
+            for (int i = 0; i < continuations; i++) {
+                int c = bytes[position++];
+                if ((c & 0xC0) != 0x80) return false;
+                codePoint = codePoint << 6 | c & 0x3F;
+            }
+            if (!isValidCodePoint(codePoint, minimum)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Check whether the given decoded code point is allowed in UTF-8, given the smallest code point for its encoded length.
+     */
+    static boolean isValidCodePoint(int codePoint, int minimum) {
+        return codePoint >= minimum && codePoint <= Character.MAX_CODE_POINT
+               && (codePoint < Character.MIN_SURROGATE || codePoint > Character.MAX_SURROGATE);
+    }
+
+
+    private static long equal(long word, long pattern) {
+        long difference = word ^ pattern;
+        return difference - ONES & ~difference & HIGHS;
+    }
+
+    /**
+     * Set the high bit of every zero byte, without the false positives of {@link #equal(long, long)}.
+     */
+    private static long zeroBytes(long word) {
+        return ~((word & LOWS) + LOWS | word | LOWS);
+    }
+}
+
+/*
+Copyright 2024 Timar Karels
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
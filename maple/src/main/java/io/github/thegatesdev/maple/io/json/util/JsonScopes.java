@@ -43,6 +43,10 @@ public final class JsonScopes {
     }
 
 
+    public boolean isRoot() {
+        return currentScope == JsonScope.Root;
+    }
+
     public ValueStatus beforeWriteValue() {
         return switch (currentScope) {
             case Root -> {
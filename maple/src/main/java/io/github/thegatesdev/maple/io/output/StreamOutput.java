@@ -0,0 +1,193 @@
+package io.github.thegatesdev.maple.io.output;
+
+import io.github.thegatesdev.maple.exception.*;
+import io.github.thegatesdev.maple.io.*;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * An output encoding characters to UTF-8 in an internal buffer, which is written to an {@code OutputStream} when full.
+ * <p>
+ * ASCII characters, including all JSON punctuation and literals, are stored as single bytes without further checks.
+ * Surrogate pairs may be split over multiple calls, unpaired surrogates are written as {@code '?'}.
+ *
+ * @author Timar Karels
+ */
+public final class StreamOutput implements Output {
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int MAX_CHAR_BYTES = 4;
+
+    private final OutputStream stream;
+    private final byte[] buffer;
+    private int position;
+
+    // A high surrogate written at the end of the previous call, waiting for its low surrogate
+    private char pendingSurrogate;
+
+
+    private StreamOutput(OutputStream stream, byte[] buffer) {
+        this.stream = stream;
+        this.buffer = buffer;
+    }
+
+    public static Output create(OutputStream stream) {
+        Objects.requireNonNull(stream, "given stream is null");
+
+        return new StreamOutput(stream, new byte[BUFFER_SIZE]);
+    }
+
+
+    @Override
+    public void raw(int character) {
+        if (character < 0x80 && pendingSurrogate == 0) {
+            if (position == buffer.length) flushBuffer();
+            buffer[position++] = (byte) character;
+        } else {
+            encode((char) character);
+        }
+    }
+
+    @Override
+    public void raw(String string) {
+        raw(string, 0, string.length());
+    }
+
+    @Override
+    public void raw(String string, int offset, int lenght) {
+        Objects.checkFromIndexSize(offset, lenght, string.length());
+
+        int index = offset, end = offset + lenght;
+        while (index < end) {
+            if (pendingSurrogate != 0) {
+                encode(string.charAt(index++));
+                continue;
+            }
+            if (position == buffer.length) flushBuffer();
+
+            // Copy ASCII characters until the buffer is full or another character is found
+            byte[] buffer = this.buffer;
+            int position = this.position;
+            int max = Math.min(end, index + buffer.length - position);
+            char c;
+            while (index < max && (c = string.charAt(index)) < 0x80) {
+                buffer[position++] = (byte) c;
+                index++;
+            }
+            this.position = position;
+            if (index < max) encode(string.charAt(index++));
+        }
+    }
+
+    @Override
+    public void raw(char[] buffer, int offset, int lenght) {
+        Objects.checkFromIndexSize(offset, lenght, buffer.length);
+
+        int index = offset, end = offset + lenght;
+        while (index < end) {
+            if (pendingSurrogate != 0) {
+                encode(buffer[index++]);
+                continue;
+            }
+            if (position == this.buffer.length) flushBuffer();
+
+            // Copy ASCII characters until the buffer is full or another character is found
+            byte[] bytes = this.buffer;
+            int position = this.position;
+            int max = Math.min(end, index + bytes.length - position);
+            char c;
+            while (index < max && (c = buffer[index]) < 0x80) {
+                bytes[position++] = (byte) c;
+                index++;
+            }
+            this.position = position;
+            if (index < max) encode(buffer[index++]);
+        }
+    }
+
+
+    @Override
+    public void flush() {
+        flushBuffer();
+        try {
+            stream.flush();
+        } catch (IOException e) {
+            throw new OutputException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (pendingSurrogate != 0) {
+            pendingSurrogate = 0;
+            raw('?');
+        }
+        flushBuffer();
+        try {
+            stream.close();
+        } catch (IOException e) {
+            throw new OutputException(e);
+        }
+    }
+
+
+    private void encode(char c) {
+        if (buffer.length - position < MAX_CHAR_BYTES) flushBuffer();
+
+        if (pendingSurrogate != 0) {
+            char high = pendingSurrogate;
+            pendingSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                int codePoint = Character.toCodePoint(high, c);
+                buffer[position++] = (byte) (0xF0 | codePoint >> 18);
+                buffer[position++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                buffer[position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                buffer[position++] = (byte) (0x80 | codePoint & 0x3F);
+                return;
+            }
+            buffer[position++] = '?';
+        }
+
+        if (c < 0x80) {
+            buffer[position++] = (byte) c;
+        } else if (c < 0x800) {
+            buffer[position++] = (byte) (0xC0 | c >> 6);
+            buffer[position++] = (byte) (0x80 | c & 0x3F);
+        } else if (Character.isHighSurrogate(c)) {
+            pendingSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            buffer[position++] = '?';
+        } else {
+            buffer[position++] = (byte) (0xE0 | c >> 12);
+            buffer[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+            buffer[position++] = (byte) (0x80 | c & 0x3F);
+        }
+    }
+
+    private void flushBuffer() {
+        if (position == 0) return;
+        try {
+            stream.write(buffer, 0, position);
+        } catch (IOException e) {
+            throw new OutputException(e);
+        }
+        position = 0;
+    }
+}
+
+/*
+Copyright 2024 Timar Karels
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
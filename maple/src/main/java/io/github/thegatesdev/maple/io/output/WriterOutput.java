@@ -40,6 +40,15 @@ public final class WriterOutput implements Output {
         }
     }
 
+    @Override
+    public void raw(String string, int offset, int lenght) {
+        try {
+            writer.write(string, offset, lenght);
+        } catch (IOException e) {
+            throw new OutputException(e);
+        }
+    }
+
     @Override
     public void raw(char[] buffer, int offset, int lenght) {
         try {
@@ -50,6 +59,15 @@ public final class WriterOutput implements Output {
     }
 
 
+    @Override
+    public void flush() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new OutputException(e);
+        }
+    }
+
     @Override
     public void close() {
         try {
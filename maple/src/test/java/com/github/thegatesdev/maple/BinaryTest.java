@@ -0,0 +1,176 @@
+package com.github.thegatesdev.maple;
+
+import io.github.thegatesdev.maple.element.*;
+import io.github.thegatesdev.maple.element.impl.*;
+import io.github.thegatesdev.maple.exception.*;
+import io.github.thegatesdev.maple.io.*;
+import org.junit.jupiter.api.*;
+
+import java.io.*;
+import java.math.*;
+import java.nio.charset.*;
+
+final class BinaryTest {
+
+    private static final DictElement dictElement = DictElement.builder()
+        .put("int", 30)
+        .put("negative", -100_000)
+        .put("long", Long.MIN_VALUE)
+        .put("float", 1.5f)
+        .put("double", Math.PI)
+        .put("bigInteger", BigInteger.TEN.pow(40))
+        .put("bigDecimal", new BigDecimal("-12345678901234567890.123"))
+        .put("string", "foo é😀")
+        .put("large", "x".repeat(20_000))
+        .put("list", ListElement.of(Element.of(true), Element.of(false), Element.none(), ListElement.empty()))
+        .put("nested", DictElement.builder().put("empty", DictElement.empty()).build())
+        .build();
+
+    private static byte[] write(Source source) {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        source.writeTo(Destination.binary(stream));
+        return stream.toByteArray();
+    }
+
+    @Test
+    void whenRoundTripping_thenKeepTypes() {
+        byte[] bytes = write(dictElement);
+        DictElement read = Element.read(Source.binary(bytes)).getDict();
+
+        Assertions.assertEquals(dictElement, read);
+        Assertions.assertInstanceOf(LongElement.class, read.get("long"));
+        Assertions.assertInstanceOf(FloatElement.class, read.get("float"));
+        Assertions.assertInstanceOf(BigDecimalElement.class, read.get("bigDecimal"));
+    }
+
+    @Test
+    void whenReadingStream_thenCrossBuffers() {
+        byte[] bytes = write(dictElement);
+        InputStream trickle = new ByteArrayInputStream(bytes) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 3));
+            }
+        };
+        Assertions.assertEquals(dictElement, Element.read(Source.binary(trickle)));
+    }
+
+    @Test
+    void whenWritingWithoutSizeHints_thenUseOpenContainers() {
+        byte[] bytes = write(destination -> {
+            destination.openObject();
+            destination.name("list");
+            destination.openArray();
+            destination.value(1);
+            destination.value("a");
+            destination.closeArray();
+            destination.name("" + (char) 14); // Looks like the end tag without its string tag
+            destination.valueNull();
+            destination.closeObject();
+        });
+        StringWriter writer = new StringWriter();
+        Source.binary(bytes).writeTo(Destination.json(Output.writer(writer)));
+        Assertions.assertEquals("{\"list\":[1,\"a\"],\"\\u000E\":null}", writer.toString());
+    }
+
+    @Test
+    void whenSizeHintsAreWrong_thenWriteActualCounts() {
+        byte[] bytes = write(destination -> {
+            destination.openArray(2);
+            destination.value(1);
+            destination.openObject(0);
+            destination.name("large");
+            destination.value("x".repeat(20_000));
+            destination.name("count");
+            destination.openArray(200);
+            destination.value(2);
+            destination.closeArray();
+            destination.closeObject();
+            destination.value(3);
+            destination.closeArray();
+        });
+        ListElement expected = ListElement.of(Element.of(1), DictElement.builder()
+            .put("large", "x".repeat(20_000))
+            .put("count", ListElement.of(Element.of(2)))
+            .build(), Element.of(3));
+        Assertions.assertEquals(expected, Element.read(Source.binary(bytes)));
+    }
+
+    @Test
+    void whenReadingLazily_thenSkipUnaccessedValues() {
+        byte[] bytes = write(destination -> {
+            destination.openObject(2);
+            destination.name("bad");
+            destination.openArray(1);
+            destination.value("x");
+            destination.closeArray();
+            destination.name("good");
+            destination.value(1);
+            destination.closeObject();
+        });
+        bytes[10] = 0x0F; // Replace the string tag in the array by an unknown tag
+        DictElement lazy = Element.lazyBinary(bytes).getDict();
+
+        Assertions.assertEquals(Element.of(1), lazy.get("good"));
+        Assertions.assertThrows(InvalidBinaryException.class, () -> lazy.get("bad"));
+        Assertions.assertThrows(InvalidBinaryException.class, () -> Element.read(Source.binary(bytes)));
+
+        byte[] valid = write(dictElement);
+        Assertions.assertEquals(dictElement, Element.lazyBinary(valid));
+        Assertions.assertEquals(dictElement, Element.read(Element.lazyBinary(valid)::writeTo));
+        Assertions.assertEquals(Element.of("foo"), Element.lazyBinary(write(Element.of("foo"))));
+    }
+
+    @Test
+    void whenLengthDoesNotMatchMembers_thenThrow() {
+        byte[] bytes = write(ListElement.of(Element.of(1), Element.of(2)));
+        bytes[2]--;
+
+        Assertions.assertThrows(InvalidBinaryException.class, () -> Element.read(Source.binary(bytes)));
+        Assertions.assertThrows(InvalidBinaryException.class, () -> Element.read(Source.binary(new ByteArrayInputStream(bytes))));
+        Assertions.assertThrows(InvalidBinaryException.class, () -> Element.lazyBinary(bytes));
+    }
+
+    @Test
+    void whenReadingHostileSizes_thenThrowWithoutAllocating() {
+        byte[] hugeArray = {0x0B, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+        byte[] hugeString = {0x09, (byte) 0xF0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+
+        Assertions.assertThrows(InvalidBinaryException.class, () -> Element.read(Source.binary(hugeArray)));
+        Assertions.assertThrows(InvalidBinaryException.class, () -> Element.read(Source.binary(new ByteArrayInputStream(hugeArray))));
+        Assertions.assertThrows(InvalidBinaryException.class, () -> Element.read(Source.binary(hugeString)));
+        Assertions.assertThrows(InvalidBinaryException.class, () -> Element.read(Source.binary(new ByteArrayInputStream(hugeString))));
+    }
+
+    @Test
+    void whenReadingMalformedUtf8_thenThrow() {
+        byte[] invalidByte = {0x09, 0x03, 'a', (byte) 0xFF, 'b'};
+        byte[] overlongName = {0x0C, 0x09, 0x02, (byte) 0xC0, (byte) 0xAF, 0x00, 0x0E};
+        byte[] large = new byte[3 + 10_000];
+        large[0] = 0x09;
+        large[1] = (byte) 0x90; // 10,000 as variable length integer
+        large[2] = 0x4E;
+        java.util.Arrays.fill(large, 3, large.length - 1, (byte) 'x');
+        large[large.length - 1] = (byte) 0xFF;
+
+        for (byte[] input : new byte[][]{invalidByte, overlongName, large}) {
+            Assertions.assertThrows(InvalidBinaryException.class, () -> Element.read(Source.binary(input)));
+            Assertions.assertThrows(InvalidBinaryException.class, () -> Element.read(Source.binary(new ByteArrayInputStream(input))));
+        }
+    }
+
+    @Test
+    void whenInvalid_thenThrow() {
+        Assertions.assertThrows(InvalidBinaryException.class, () -> write(destination -> {
+            destination.openObject(1);
+            destination.value(1);
+        }));
+
+        byte[] bytes = write(dictElement);
+        byte[] truncated = java.util.Arrays.copyOf(bytes, bytes.length - 1);
+        Assertions.assertThrows(InvalidBinaryException.class, () -> Element.read(Source.binary(truncated)));
+        Assertions.assertThrows(InvalidBinaryException.class, () -> Element.read(Source.binary(new byte[0])));
+        Assertions.assertThrows(InvalidBinaryException.class,
+            () -> Element.read(Source.binary("\u000F".getBytes(StandardCharsets.UTF_8))));
+    }
+}
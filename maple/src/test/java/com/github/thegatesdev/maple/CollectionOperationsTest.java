@@ -1,9 +1,13 @@
 package com.github.thegatesdev.maple;
 
 import io.github.thegatesdev.maple.element.*;
+import io.github.thegatesdev.maple.element.impl.*;
 import io.github.thegatesdev.maple.exception.*;
+import io.github.thegatesdev.maple.io.*;
 import org.junit.jupiter.api.*;
 
+import java.io.*;
+import java.util.*;
 import java.util.concurrent.atomic.*;
 import java.util.function.*;
 
@@ -55,6 +59,178 @@ final class CollectionOperationsTest {
         Assertions.assertTrue(listElement.find(-1).isEmpty());
     }
 
+    @Test
+    void whenDictGrowsAndShrinks_thenContentsMatch() {
+        DictElement.Builder builder = dictElement.toBuilder();
+        for (int i = 0; i < 10; i++) builder.put("key" + i, Element.of(i));
+        DictElement large = builder.build();
+        DictElement small = large.toBuilder().keep("int", "string", "missing").build();
+
+        Assertions.assertEquals(13, large.count());
+        Assertions.assertEquals(Element.of(9), large.get("key9"));
+        Assertions.assertEquals(2, small.count());
+        Assertions.assertTrue(small.find("missing").isEmpty());
+        Assertions.assertEquals(small, DictElement.builder().put("string", "foo").put("int", 30).build());
+        Assertions.assertEquals(small.view().hashCode(), small.hashCode());
+        Assertions.assertTrue(dictElement.contentEquals(large.toBuilder().remove("key0", "key1", "key2", "key3", "key4",
+            "key5", "key6", "key7", "key8", "key9").build()));
+    }
+
+    @Test
+    void whenListHoldsNumbersOfOneType_thenKeepValues() {
+        ListElement ints = ListElement.of(Element.of(1), Element.of(0), Element.of(-3));
+        ListElement longs = ListElement.builder().add(0L).add(Long.MAX_VALUE).build();
+        ListElement doubles = ListElement.builder().add(0.5).add(0d).add(Double.NaN).build();
+        ListElement mixed = ListElement.of(Element.of(1), Element.of(2L));
+
+        Assertions.assertEquals(IntElement.ZERO, ints.get(1));
+        Assertions.assertEquals(Element.of(Long.MAX_VALUE), longs.get(1));
+        Assertions.assertSame(IntElement.ZERO, doubles.get(1));
+        Assertions.assertEquals(Element.of(Double.NaN), doubles.get(2));
+        Assertions.assertEquals(Element.of(2L), mixed.get(1));
+        Assertions.assertEquals(ListElement.builder().add(1).add(0).add(-3).build(), ints);
+        Assertions.assertEquals(ints, ListElement.persistentBuilder().addAll(ints).build());
+        Assertions.assertEquals(ListElement.persistentBuilder().addAll(doubles).build().hashCode(), doubles.hashCode());
+        Assertions.assertEquals(ints, Element.read(ints::writeTo));
+        Assertions.assertEquals(longs, Element.read(longs::writeTo));
+    }
+
+    @Test
+    void whenHashedLazily_thenMatchEagerHashAndEquality() {
+        DictElement persistent = DictElement.persistentBuilder().putAll(dictElement).build();
+        DictElement read = Element.read(dictElement::writeTo).getDict();
+        DictElement hashedBase = DictElement.persistentBuilder().putAll(dictElement).build();
+        hashedBase.hashCode();
+        DictElement edited = hashedBase.toBuilder().put("int", Element.of(31)).remove("string").put("added", listElement).build();
+        DictElement unhashedEdit = persistent.toBuilder().put("int", Element.of(31)).remove("string").put("added", listElement).build();
+
+        for (DictElement dict : List.of(dictElement, persistent, read, edited, unhashedEdit)) {
+            Assertions.assertEquals(new HashMap<>(dict.view()).hashCode(), dict.hashCode());
+            Assertions.assertEquals(dict.hashCode(), dict.hashCode());
+        }
+        Assertions.assertEquals(dictElement, persistent);
+        Assertions.assertEquals(dictElement.hashCode(), read.hashCode());
+        Assertions.assertEquals(edited, unhashedEdit);
+        Assertions.assertEquals(edited.hashCode(), unhashedEdit.hashCode());
+        Assertions.assertEquals(List.copyOf(listElement.view()).hashCode(), listElement.hashCode());
+
+        DictElement persistentEmpty = DictElement.persistentBuilder().build();
+        Assertions.assertEquals(0, DictElement.empty().hashCode());
+        Assertions.assertEquals(0, persistentEmpty.hashCode());
+        Assertions.assertEquals(DictElement.empty(), persistentEmpty);
+        Assertions.assertEquals(persistentEmpty, DictElement.empty());
+        Assertions.assertEquals(0, dictElement.toBuilder().keep().build().hashCode());
+        Assertions.assertEquals(List.of().hashCode(), ListElement.empty().hashCode());
+    }
+
+    @Test
+    void whenContentsMatch_thenSameDigest() {
+        DictElement persistent = DictElement.persistentBuilder().putAll(dictElement).build();
+        DictElement read = Element.read(dictElement::writeTo).getDict();
+        DictElement changed = dictElement.toBuilder().put("nested", DictElement.builder()
+            .put("unset", Element.none())
+            .put("bool", Element.of(false))
+            .build()).build();
+
+        Assertions.assertEquals(dictElement.digest(), persistent.digest());
+        Assertions.assertEquals(dictElement.digest(), read.digest());
+        Assertions.assertNotEquals(dictElement.digest(), changed.digest());
+        Assertions.assertFalse(dictElement.contentEquals(changed));
+        Assertions.assertEquals(listElement.digest(), ListElement.persistentBuilder().addAll(listElement).build().digest());
+        Assertions.assertNotEquals(listElement.digest(), ListElement.of(listElement.get(1), listElement.get(0), listElement.get(2)).digest());
+        Assertions.assertNotEquals(Element.of(1).digest(), Element.of(1L).digest());
+    }
+
+    @Test
+    void whenReadingDeepDicts_thenCacheDigests() {
+        int depth = 100_000;
+        DictElement root = Element.read(Source.json(new StringReader("{\"a\":".repeat(depth) + "1" + "}".repeat(depth)))).getDict();
+        DictElement[] chain = new DictElement[depth];
+        DictElement current = root;
+        for (int i = 0; i < depth; i++) {
+            chain[i] = current;
+            if (i < depth - 1) current = current.get("a").getDict();
+        }
+        // Computing the digest of the root directly would overflow the stack, unless the nested digests are cached
+        for (int i = depth - 1; i >= 0; i--) chain[i].digest();
+
+        Assertions.assertEquals(root.digest(), Element.read(root::writeTo).digest());
+    }
+
+    @Test
+    void whenMerging_thenOverrideNestedAndShareUntouched() {
+        DictElement base = dictElement.toBuilder().put("list", listElement).build();
+        DictElement override = DictElement.builder()
+            .put("string", Element.of("bar"))
+            .put("nested", DictElement.builder().put("bool", Element.of(false)).build())
+            .put("list", ListElement.of(Element.of(1)))
+            .build();
+
+        DictElement merged = DictElement.merge(base, override);
+
+        Assertions.assertEquals(Element.of("bar"), merged.get("string"));
+        Assertions.assertEquals(Element.of(30), merged.get("int"));
+        Assertions.assertEquals(Element.of(false), merged.get("nested").getDict().get("bool"));
+        Assertions.assertEquals(Element.none(), merged.get("nested").getDict().get("unset"));
+        Assertions.assertEquals(ListElement.of(Element.of(1)), merged.get("list"));
+        Assertions.assertSame(base.get("nested").getDict().get("unset"), merged.get("nested").getDict().get("unset"));
+        Assertions.assertSame(base, DictElement.merge(base, DictElement.empty()));
+    }
+
+    @Test
+    void whenMergingWithPolicy_thenResolveConflicts() {
+        DictElement base = dictElement.toBuilder().put("list", listElement).build();
+        DictElement override = DictElement.builder()
+            .put("string", Element.of("bar"))
+            .put("list", ListElement.of(Element.of(1)))
+            .build();
+
+        DictElement kept = DictElement.merge(base, override, MergePolicy.KEEP);
+        DictElement concatenated = DictElement.merge(base, override, MergePolicy.CONCATENATE_LISTS);
+
+        Assertions.assertSame(base, kept);
+        Assertions.assertEquals(Element.of("bar"), concatenated.get("string"));
+        Assertions.assertEquals(4, concatenated.get("list").getList().count());
+        Assertions.assertEquals(Element.of(1), concatenated.get("list").getList().get(3));
+    }
+
+    @Test
+    void whenOverlaying_thenResolveInLayerOrder() {
+        DictElement defaults = dictElement.toBuilder().put("list", listElement).build();
+        DictElement override = DictElement.builder()
+            .put("string", Element.of("bar"))
+            .put("nested", DictElement.builder().put("bool", Element.of(false)).build())
+            .put("added", Element.of(1))
+            .build();
+
+        DictElement overlay = DictElement.overlay(override, defaults);
+
+        Assertions.assertEquals(Element.of("bar"), overlay.get("string"));
+        Assertions.assertEquals(Element.of(30), overlay.get("int"));
+        Assertions.assertSame(defaults.get("list"), overlay.get("list"));
+        Assertions.assertEquals(Element.of(false), overlay.get("nested").getDict().get("bool"));
+        Assertions.assertEquals(Element.none(), overlay.get("nested").getDict().get("unset"));
+        Assertions.assertSame(overlay.get("nested"), overlay.get("nested"));
+        Assertions.assertTrue(overlay.find("missing").isEmpty());
+        Assertions.assertEquals(5, overlay.count());
+        Assertions.assertTrue(overlay.contentEquals(DictElement.merge(defaults, override)));
+        Assertions.assertEquals(DictElement.merge(defaults, override).digest(), overlay.digest());
+        Assertions.assertEquals(DictElement.merge(defaults, override), overlay);
+        Assertions.assertEquals(overlay, DictElement.merge(defaults, override));
+        Assertions.assertEquals(DictElement.merge(defaults, override).get("nested"), overlay.get("nested"));
+        Assertions.assertEquals(overlay.get("nested"), DictElement.merge(defaults, override).get("nested"));
+        Assertions.assertTrue(Set.of(DictElement.merge(defaults, override).get("nested")).contains(overlay.get("nested")));
+
+        DictElement first = DictElement.builder().put("k", DictElement.builder().put("x", 1).build()).build();
+        DictElement hiding = DictElement.builder().put("k", "scalar").build();
+        DictElement last = DictElement.builder().put("k", DictElement.builder().put("y", 2).build()).build();
+        DictElement nested = DictElement.overlay(DictElement.overlay(first, hiding), last);
+
+        Assertions.assertEquals(DictElement.builder().put("x", 1).put("y", 2).build(), nested.get("k"));
+        Assertions.assertEquals(nested.get("k"), DictElement.builder().put("x", 1).put("y", 2).build());
+        Assertions.assertEquals(DictElement.merge(last, DictElement.merge(hiding, first)), nested);
+    }
+
     @Test
     void whenIterating_thenVisitChildren() {
         Assertions.assertEquals(3, callCount(dictElement::each));
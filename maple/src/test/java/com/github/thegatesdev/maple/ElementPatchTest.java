@@ -0,0 +1,107 @@
+package com.github.thegatesdev.maple;
+
+import io.github.thegatesdev.maple.element.*;
+import io.github.thegatesdev.maple.io.*;
+import org.junit.jupiter.api.*;
+
+import java.io.*;
+import java.util.*;
+
+final class ElementPatchTest {
+
+    private static DictElement document() {
+        return DictElement.build(builder -> builder
+            .put("name", "maple")
+            .put("version", 3)
+            .put("settings", DictElement.build(settings -> settings
+                .put("enabled", true)
+                .put("limit", 10)))
+            .put("tags", ListElement.of(Element.of("a"), Element.of("b"), Element.of("c"))));
+    }
+
+    @Test
+    void whenDiffingEqualElements_thenPatchIsEmpty() {
+        Assertions.assertTrue(ElementPatch.diff(document(), document()).isEmpty());
+    }
+
+    @Test
+    void whenDiffingNestedChange_thenOnlyChangedValuesInPatch() {
+        DictElement from = document();
+        DictElement to = from.toBuilder()
+            .put("settings", from.get("settings").getDict().toBuilder().put("limit", 20).build())
+            .remove("version")
+            .put("added", "value")
+            .build();
+
+        ElementPatch patch = ElementPatch.diff(from, to);
+
+        Assertions.assertEquals(Set.of(
+            new ElementPatch.Operation(ElementPatch.Type.REPLACE, List.of("settings", "limit"), Element.of(20)),
+            new ElementPatch.Operation(ElementPatch.Type.REMOVE, List.of("version"), null),
+            new ElementPatch.Operation(ElementPatch.Type.ADD, List.of("added"), Element.of("value"))
+        ), Set.copyOf(patch.operations()));
+        Assertions.assertEquals(to, patch.apply(from));
+    }
+
+    @Test
+    void whenDiffingLists_thenAppliedPatchReproducesTarget() {
+        DictElement from = document();
+        DictElement grown = from.toBuilder().put("tags", ListElement.of(Element.of("a"), Element.of("x"), Element.of("c"), Element.of("d"))).build();
+        DictElement shrunk = from.toBuilder().put("tags", ListElement.of(Element.of("z"))).build();
+
+        Assertions.assertEquals(grown, ElementPatch.diff(from, grown).apply(from));
+        Assertions.assertEquals(shrunk, ElementPatch.diff(from, shrunk).apply(from));
+        Assertions.assertEquals(from, ElementPatch.diff(shrunk, from).apply(shrunk));
+    }
+
+    @Test
+    void whenApplyingPatch_thenUntouchedValuesShared() {
+        DictElement from = document();
+        DictElement to = from.toBuilder().put("name", "changed").build();
+
+        DictElement result = (DictElement) ElementPatch.diff(from, to).apply(from);
+
+        Assertions.assertSame(from.get("settings"), result.get("settings"));
+        Assertions.assertSame(from.get("tags"), result.get("tags"));
+    }
+
+    @Test
+    void whenDiffingPersistentDicts_thenOnlyChangedKeysInPatch() {
+        DictElement.Builder builder = DictElement.persistentBuilder();
+        for (int i = 0; i < 10_000; i++) builder.put("key" + i, Element.of(i));
+        DictElement from = builder.build();
+        DictElement to = from.toBuilder().put("key42", Element.of("changed")).remove("key7").build();
+
+        ElementPatch patch = ElementPatch.diff(from, to);
+
+        Assertions.assertEquals(2, patch.operations().size());
+        Assertions.assertEquals(to, patch.apply(from));
+    }
+
+    @Test
+    void whenDiffingParsedTrees_thenReuseDigestsOfUnchangedValues() {
+        int depth = 100_000;
+        String deep = "{\"a\":".repeat(depth) + "1" + "}".repeat(depth);
+        DictElement from = Element.read(Source.json(new StringReader("{\"name\":\"maple\",\"deep\":" + deep + "}"))).getDict();
+        DictElement to = Element.read(Source.json(new StringReader("{\"name\":\"changed\",\"deep\":" + deep + "}"))).getDict();
+        digestBottomUp(from.get("deep").getDict(), depth);
+        digestBottomUp(to.get("deep").getDict(), depth);
+
+        // Walking the unchanged chain again would overflow the stack, so the diff has to reuse the digests
+        ElementPatch patch = ElementPatch.diff(from, to);
+
+        Assertions.assertEquals(List.of(
+            new ElementPatch.Operation(ElementPatch.Type.REPLACE, List.of("name"), Element.of("changed"))
+        ), patch.operations());
+    }
+
+    private static void digestBottomUp(DictElement root, int depth) {
+        DictElement[] chain = new DictElement[depth];
+        DictElement current = root;
+        for (int i = 0; i < depth; i++) {
+            chain[i] = current;
+            if (i < depth - 1) current = current.get("a").getDict();
+        }
+        for (int i = depth - 1; i >= 0; i--) chain[i].digest();
+    }
+}
@@ -0,0 +1,174 @@
+package com.github.thegatesdev.maple;
+
+import io.github.thegatesdev.maple.element.*;
+import io.github.thegatesdev.maple.element.impl.internal.*;
+import io.github.thegatesdev.maple.exception.*;
+import io.github.thegatesdev.maple.io.*;
+import org.junit.jupiter.api.*;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.util.*;
+
+final class ElementReadTest {
+
+    private static final DictElement dictElement = DictElement.builder(3)
+        .put("int", Element.of(30))
+        .put("list", ListElement.of(Element.of("foo"), Element.none()))
+        .put("nested", DictElement.builder(1)
+            .put("bool", Element.of(true))
+            .build())
+        .build();
+
+    @Test
+    void whenReadingJson_thenBuildElements() {
+        Element element = Element.read(Source.json(new StringReader(
+            "{\"int\":30,\"list\":[\"foo\",null],\"nested\":{\"bool\":true}}")));
+
+        Assertions.assertTrue(element.isDict());
+        Assertions.assertTrue(dictElement.contentEquals(element.getDict()));
+    }
+
+    @Test
+    void whenReadingElementEvents_thenBuildEqualElement() {
+        Element element = Element.read(dictElement::writeTo);
+
+        Assertions.assertNotSame(dictElement, element);
+        Assertions.assertEquals(dictElement, element);
+        Assertions.assertSame(dictElement.get("nested"), element.getDict().get("nested"));
+    }
+
+    @Test
+    void whenReadingRecords_thenLookupSharedKeys() {
+        ListElement records = Element.read(Source.json(new StringReader(
+            "[{\"id\":1,\"name\":\"a\"},{\"id\":2,\"name\":\"b\"},{\"name\":\"c\",\"id\":3},{\"id\":4,\"id\":5}]"))).getList();
+
+        Assertions.assertEquals(Element.of(2), records.get(1).getDict().get("id"));
+        Assertions.assertEquals(Element.of("c"), records.get(2).getDict().get("name"));
+        Assertions.assertTrue(records.get(0).getDict().find("missing").isEmpty());
+        Assertions.assertEquals(DictElement.builder().put("name", "b").put("id", 2).build(), records.get(1));
+        // Duplicate keys replace the earlier value, like they would in a map
+        Assertions.assertEquals(1, records.get(3).getDict().count());
+        Assertions.assertEquals(Element.of(5), records.get(3).getDict().get("id"));
+    }
+
+    @Test
+    void whenOneReadCreatesManyShapes_thenLaterReadsStillShareKeys() {
+        // Objects keyed by id create a new shape for every object, until the read runs out of new shapes
+        String prefix = UUID.randomUUID().toString();
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 10_000; i++) json.append(i == 0 ? "" : ",").append("{\"").append(prefix).append(i).append("\":").append(i).append('}');
+        ListElement keyedById = Element.read(Source.json(new StringReader(json.append(']').toString()))).getList();
+
+        DictElement record = Element.read(Source.json(new StringReader(
+            "{\"" + prefix + "-first\":1,\"" + prefix + "-second\":2}"))).getDict();
+
+        Assertions.assertEquals(Element.of(9999), keyedById.get(9999).getDict().get(prefix + 9999));
+        Assertions.assertInstanceOf(ShapedDictElement.class, record);
+        Assertions.assertEquals(Element.of(2), record.get(prefix + "-second"));
+    }
+
+    @Test
+    void whenReadingWithInterner_thenShareEqualValues() {
+        ElementInterner interner = ElementInterner.create();
+        String json = "[\"state\",\"state\",123456,123456,5,5]";
+        ListElement first = Element.read(Source.json(new StringReader(json)), interner).getList();
+        ListElement second = Element.read(Source.json(new StringReader(json)), interner).getList();
+
+        Assertions.assertSame(first.get(0), first.get(1));
+        Assertions.assertSame(first.get(0), second.get(0));
+        Assertions.assertSame(first.get(2), second.get(3));
+        Assertions.assertSame(first.get(4), Element.of(5));
+        Assertions.assertEquals(3, interner.size());
+    }
+
+    @Test
+    void whenReadingEmptyCollections_thenUseEmpty() {
+        Assertions.assertSame(ListElement.empty(), Element.read(Source.json(new StringReader("[]"))));
+        Assertions.assertSame(DictElement.empty(), Element.read(Source.json(new StringReader("{}"))));
+    }
+
+    @Test
+    void whenReadingWithoutTrimming_thenOnlyUseReadValues() {
+        // Read collections keep the partly filled arrays they were built in
+        ListElement list = Element.read(Source.json(new StringReader("[\"a\",true,null]"))).getList();
+        DictElement dict = Element.read(Source.json(new StringReader("{\"a\":\"b\",\"c\":true}"))).getDict();
+        ListElement expectedList = ListElement.wrap(new Element[]{Element.of("a"), Element.of(true), Element.none()});
+        DictElement expectedDict = DictElement.wrap(Map.of("a", Element.of("b"), "c", Element.of(true)));
+
+        Assertions.assertEquals(expectedList, list);
+        Assertions.assertEquals(expectedList.hashCode(), list.hashCode());
+        Assertions.assertEquals(3, list.count());
+        Assertions.assertEquals(3, list.toArray().length);
+        Assertions.assertEquals(3, list.view().size());
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> list.get(3));
+        Assertions.assertEquals(expectedDict, dict);
+        Assertions.assertEquals(expectedDict.hashCode(), dict.hashCode());
+        Assertions.assertEquals(2, dict.values().count());
+        Assertions.assertEquals(2, dict.stream().count());
+    }
+
+    @Test
+    void whenReadingIncomplete_thenThrow() {
+        Assertions.assertThrows(IllegalStateException.class, () -> Element.read(destination -> destination.openArray()));
+        Assertions.assertThrows(IllegalStateException.class, () -> Element.read(destination -> {
+            destination.openObject();
+            destination.value(1);
+        }));
+        Assertions.assertThrows(IllegalStateException.class, () -> Element.read(Source.json(new StringReader("1 2"))));
+    }
+
+    @Test
+    void whenReadingLazily_thenMaterializeOnAccess() {
+        String json = "{\"int\":30,\"list\":[\"foo\",null],\"nested\":{\"bool\":true},\"esc\\u0061ped\":[]}";
+        DictElement lazy = Element.lazyJson(json.getBytes(StandardCharsets.UTF_8)).getDict();
+
+        Assertions.assertEquals(Element.of(30), lazy.get("int"));
+        Assertions.assertSame(lazy.get("nested"), lazy.get("nested"));
+        Assertions.assertTrue(lazy.get("nested").getDict().get("bool").getBool());
+        Assertions.assertTrue(lazy.find("escaped").isPresent());
+        Assertions.assertTrue(lazy.find("missing").isEmpty());
+        Assertions.assertEquals(4, lazy.count());
+        Assertions.assertTrue(lazy.contentEquals(Element.read(Source.json(new StringReader(json))).getDict()));
+        Assertions.assertEquals(2, lazy.get("list").getList().count());
+    }
+
+    @Test
+    void whenReadingLazily_thenOnlyValidateAccessed() {
+        DictElement lazy = Element.lazyJson("{\"good\":1,\"bad\":[1,,2]}".getBytes(StandardCharsets.UTF_8)).getDict();
+
+        Assertions.assertEquals(Element.of(1), lazy.get("good"));
+        Assertions.assertThrows(InvalidJsonException.class, () -> lazy.get("bad"));
+        Assertions.assertThrows(InvalidJsonException.class, () -> Element.lazyJson("{\"a\":1".getBytes()));
+        Assertions.assertThrows(InvalidJsonException.class, () -> Element.lazyJson("[1] 2".getBytes()));
+    }
+
+    @Test
+    void whenReadingLazily_thenEqualToReadElements() {
+        String json = "{\"int\":30,\"list\":[\"foo\",null],\"nested\":{\"bool\":true}}";
+        DictElement lazy = Element.lazyJson(json.getBytes(StandardCharsets.UTF_8)).getDict();
+        DictElement read = Element.read(Source.json(new StringReader(json))).getDict();
+
+        Assertions.assertEquals(read, lazy);
+        Assertions.assertEquals(lazy, read);
+        Assertions.assertEquals(dictElement, lazy);
+        Assertions.assertEquals(lazy, dictElement);
+        Assertions.assertEquals(dictElement.hashCode(), lazy.hashCode());
+        Assertions.assertEquals(dictElement.get("list"), lazy.get("list"));
+        Assertions.assertEquals(lazy.get("list"), dictElement.get("list"));
+        Assertions.assertTrue(Set.of(dictElement).contains(lazy));
+    }
+
+    @Test
+    void whenReadingLazilyWithDuplicateKeys_thenWriteLastValues() {
+        String json = "{\"a\":1,\"a\":2,\"nested\":{\"b\":1,\"b\":2},\"list\":[{\"c\":1,\"c\":2}]}";
+        DictElement lazy = Element.lazyJson(json.getBytes(StandardCharsets.UTF_8)).getDict();
+        StringWriter writer = new StringWriter();
+        lazy.writeTo(Destination.json(Output.writer(writer)));
+
+        Assertions.assertEquals(3, lazy.count());
+        Assertions.assertEquals(Element.of(2), lazy.get("a"));
+        Assertions.assertEquals("{\"a\":2,\"nested\":{\"b\":2},\"list\":[{\"c\":2}]}", writer.toString());
+        Assertions.assertEquals(lazy, Element.read(lazy::writeTo));
+    }
+}
@@ -0,0 +1,155 @@
+package com.github.thegatesdev.maple;
+
+import io.github.thegatesdev.maple.element.*;
+import io.github.thegatesdev.maple.exception.*;
+import io.github.thegatesdev.maple.io.*;
+import org.junit.jupiter.api.*;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+
+final class JsonSourceTest {
+
+    private static String copy(String json) {
+        StringWriter writer = new StringWriter();
+        Source.json(new StringReader(json)).writeTo(Destination.json(Output.writer(writer)));
+        return writer.toString();
+    }
+
+    private static String copyBytes(Source source) {
+        StringWriter writer = new StringWriter();
+        source.writeTo(Destination.json(Output.writer(writer)));
+        return writer.toString();
+    }
+
+    @Test
+    void whenReadingStructure_thenWriteSameStructure() {
+        String json = "{\"int\":30,\"list\":[true,false,null,\"foo\"],\"nested\":{\"empty\":{},\"none\":[]}}";
+        Assertions.assertEquals(json, copy(json));
+        Assertions.assertEquals("[1,{\"a\":[]}]", copy(" [ 1 ,\n\t{ \"a\" : [ ] } ]\r\n"));
+    }
+
+    @Test
+    void whenReadingNumbers_thenKeepValues() {
+        Assertions.assertEquals("[0,-5,2147483648,123456789012345678901234567890]",
+            copy("[0,-5,2147483648,123456789012345678901234567890]"));
+        Assertions.assertEquals("[0.5,-12.25,1.0E10,1.0E-7,0.1,1.7976931348623157E308]",
+            copy("[0.5,-12.25,1e10,1E-7,0.1,1.7976931348623157e308]"));
+    }
+
+    @Test
+    void whenReadingEscapes_thenUnescape() {
+        Assertions.assertEquals("\"a\\\"b\\\\c\\nd\\u0001\\/\"", copy("\"a\\\"b\\\\c\\nd\\u0001/\""));
+        Assertions.assertEquals("\"é€\"", copy("\"\\u00e9\\u20AC\""));
+        Assertions.assertEquals("\"\\u001F\"", copy("\"\\u001f\""));
+    }
+
+    @Test
+    void whenReadingLargeInput_thenCrossBuffers() {
+        String large = "x".repeat(20_000);
+        Assertions.assertEquals("[\"" + large + "\"]", copy("[\"" + large + "\"]"));
+
+        String deep = "[".repeat(50_000) + "]".repeat(50_000);
+        Assertions.assertEquals(deep, copy(deep));
+    }
+
+    @Test
+    void whenReadingInvalid_thenThrow() {
+        Assertions.assertThrows(InvalidJsonException.class, () -> copy(""));
+        Assertions.assertThrows(InvalidJsonException.class, () -> copy("[1,]"));
+        Assertions.assertThrows(InvalidJsonException.class, () -> copy("{\"a\" 1}"));
+        Assertions.assertThrows(InvalidJsonException.class, () -> copy("[01]"));
+        Assertions.assertThrows(InvalidJsonException.class, () -> copy("\"unterminated"));
+        Assertions.assertThrows(InvalidJsonException.class, () -> copy("tru"));
+    }
+
+    @Test
+    void whenReadingBytes_thenDecodeOnlyStrings() {
+        String json = "{\"ascii\":[1,2.5,\"foo\"],\"utf8\":\"é€😀\",\"escaped\":\"\\u00e9\\n\"}";
+        String expected = "{\"ascii\":[1,2.5,\"foo\"],\"utf8\":\"é€😀\",\"escaped\":\"é\\n\"}";
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+
+        Assertions.assertEquals(expected, copyBytes(Source.json(bytes)));
+        Assertions.assertEquals(expected, copyBytes(Source.json(new ByteArrayInputStream(bytes))));
+        Assertions.assertEquals(expected, copyBytes(Source.json(ByteBuffer.wrap(bytes))));
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+        Assertions.assertEquals(expected, copyBytes(Source.json(direct)));
+        Assertions.assertEquals(0, direct.position());
+    }
+
+    @Test
+    void whenReadingMalformedUtf8_thenThrow() {
+        byte[][] inputs = {
+            {'"', 'a', (byte) 0xFF, 'b', '"'}, // Invalid lead byte
+            {'"', 'a', '\\', 'n', (byte) 0xFF, 'b', '"'}, // Same, after an escape
+            {'"', (byte) 0xC3, 'a', '"'}, // Missing continuation byte
+            {'"', (byte) 0xC0, (byte) 0xAF, '"'}, // Overlong encoding
+            {'"', (byte) 0xED, (byte) 0xA0, (byte) 0x80, '"'}, // Surrogate
+            {'{', '"', (byte) 0xFF, '"', ':', '1', '}'} // In a key
+        };
+        for (byte[] input : inputs) {
+            Assertions.assertThrows(InvalidJsonException.class, () -> copyBytes(Source.json(input)));
+            Assertions.assertThrows(InvalidJsonException.class, () -> copyBytes(Source.json(new ByteArrayInputStream(input))));
+        }
+        byte[] lazyKey = {'{', '"', (byte) 0xFF, '"', ':', '1', '}'};
+        Assertions.assertThrows(InvalidJsonException.class, () -> Element.lazyJson(lazyKey).getDict().count());
+    }
+
+    @Test
+    void whenReadingBytes_thenFindStopsAtEveryOffset() {
+        for (int i = 0; i < 17; i++) {
+            String padding = "a".repeat(i);
+            String json = "{\"" + padding + "\":[\"" + padding + "\\n\",\"" + padding + "é\",{\"[\":\"]}\"}]}";
+            byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+
+            Assertions.assertEquals(json, copyBytes(Source.json(bytes)));
+            Assertions.assertTrue(Element.lazyJson(bytes).getDict().contentEquals(Element.read(Source.json(bytes)).getDict()));
+        }
+    }
+
+    @Test
+    void whenReadingBytesWithWhitespace_thenFindTokensAtEveryOffset() {
+        String expected = "{\"a b\":[1,true,\" \\t \",{}],\"c\":-2.5}";
+        for (int i = 0; i < 70; i++) {
+            String padding = " \n\r\t".repeat(i).substring(0, i);
+            String json = padding + "{" + padding + "\"a b\"" + padding + ":[1" + padding + ",true,\" \\t \"" + padding
+                          + ",{" + padding + "}]," + padding + "\"c\":" + padding + "-2.5" + padding + "}" + padding;
+            byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+
+            Assertions.assertEquals(expected, copyBytes(Source.json(bytes)));
+            Assertions.assertEquals(expected, copyBytes(Source.json(new ByteArrayInputStream(bytes))));
+            byte[] invalid = (padding + "[12" + padding + "x]").getBytes(StandardCharsets.UTF_8);
+            Assertions.assertThrows(InvalidJsonException.class, () -> copyBytes(Source.json(invalid)));
+        }
+    }
+
+    @Test
+    void whenReadingLargeBytes_thenCrossBuffers() {
+        String large = "x" + "é".repeat(10_000) + "😀".repeat(3_000);
+        byte[] bytes = ("[\"" + large + "\"]").getBytes(StandardCharsets.UTF_8);
+        Assertions.assertEquals("[\"" + large + "\"]", copyBytes(Source.json(new ByteArrayInputStream(bytes))));
+    }
+
+    @Test
+    void whenReadingFile_thenReadFile() throws IOException {
+        Path file = Files.createTempFile("maple", ".json");
+        try {
+            Files.writeString(file, "{\"list\":[1,\"é\",null]}");
+            Assertions.assertEquals("{\"list\":[1,\"é\",null]}", copyBytes(Source.json(file)));
+        } finally {
+            Files.delete(file);
+        }
+        Assertions.assertThrows(InputException.class, () -> copyBytes(Source.json(file)));
+    }
+
+    @Test
+    void whenReadTwice_thenThrow() {
+        Source source = Source.json(new StringReader("1"));
+        source.writeTo(Destination.json(Output.writer(new StringWriter())));
+        Assertions.assertThrows(IllegalStateException.class,
+            () -> source.writeTo(Destination.json(Output.writer(new StringWriter()))));
+    }
+}
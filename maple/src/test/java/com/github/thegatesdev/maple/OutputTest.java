@@ -0,0 +1,165 @@
+package com.github.thegatesdev.maple;
+
+import io.github.thegatesdev.maple.element.*;
+import io.github.thegatesdev.maple.exception.*;
+import io.github.thegatesdev.maple.io.*;
+import org.junit.jupiter.api.*;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.util.*;
+
+final class OutputTest {
+
+    private static final DictElement dictElement = DictElement.builder(3)
+        .put("ascii", Element.of("foo\n"))
+        .put("utf8", Element.of("é€😀"))
+        .put("list", ListElement.of(Element.of(true), Element.of(false), Element.none(), Element.of(30)))
+        .build();
+
+    private static String writeJson(Element element) {
+        StringWriter writer = new StringWriter();
+        element.writeTo(Destination.json(Output.writer(writer)));
+        return writer.toString();
+    }
+
+    @Test
+    void whenWritingToStream_thenEncodeUtf8() {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        Output output = Output.stream(stream);
+        dictElement.writeTo(Destination.json(output));
+        output.flush();
+
+        Assertions.assertEquals(writeJson(dictElement), stream.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void whenWritingLargeToStream_thenCrossBuffers() {
+        String large = "x".repeat(5_000) + "é".repeat(5_000) + "😀".repeat(5_000);
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        try (Output output = Output.stream(stream)) {
+            output.raw(large);
+            output.raw(large.toCharArray(), 0, large.length());
+        }
+        Assertions.assertEquals(large + large, stream.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void whenWritingSplitSurrogates_thenJoinPairs() {
+        String emoji = "😀";
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        try (Output output = Output.stream(stream)) {
+            output.raw(emoji.charAt(0));
+            output.raw(emoji.charAt(1));
+            output.raw(emoji.substring(0, 1));
+            output.raw("a");
+            output.raw(emoji.charAt(1));
+        }
+        Assertions.assertEquals(emoji + "?a?", stream.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void whenWritingWithRecycler_thenReleaseBuffers() {
+        BufferRecycler recycler = BufferRecycler.pooled(1);
+        StringWriter writer = new StringWriter();
+        Destination destination = Destination.json(Output.writer(writer), recycler);
+        dictElement.writeTo(destination);
+        dictElement.writeTo(destination);
+
+        Assertions.assertEquals(writeJson(dictElement) + " " + writeJson(dictElement), writer.toString());
+        Assertions.assertTrue(recycler.acquire(0).length > 0);
+        Assertions.assertEquals(0, recycler.acquire(0).length);
+    }
+
+    @Test
+    void whenWritingNumbers_thenMatchToString() {
+        Random random = new Random(42);
+        StringWriter writer = new StringWriter();
+        StringBuilder expected = new StringBuilder();
+        Destination destination = Destination.json(Output.writer(writer));
+        destination.openArray();
+        for (long value : new long[]{0, -1, 9, 10, Integer.MIN_VALUE, Long.MIN_VALUE, Long.MAX_VALUE}) {
+            destination.value(value);
+            expected.append(value).append(',');
+        }
+        for (int i = 0; i < 20_000; i++) {
+            double value = switch (i % 4) {
+                case 0 -> Double.longBitsToDouble(random.nextLong());
+                case 1 -> random.nextDouble() * Math.pow(10, random.nextInt(12) - 4);
+                case 2 -> random.nextInt(10_000_000) / Math.pow(10, random.nextInt(10));
+                default -> -random.nextInt(1000) / 100.0;
+            };
+            destination.value(value);
+            destination.value((float) value);
+            expected.append(value).append(',').append((float) value).append(',');
+        }
+        destination.value(-0.0);
+        destination.closeArray();
+        expected.append(-0.0);
+
+        Assertions.assertEquals("[" + expected + "]", writer.toString());
+    }
+
+    @Test
+    void whenWritingEscapes_thenWriteCleanRunsAsIs() {
+        Assertions.assertEquals("\"plain é\"", writeJson(Element.of("plain é")));
+        Assertions.assertEquals("\"\\\"a\\\\b\\/c\\u0000\\u001F\\td\\n\"",
+            writeJson(Element.of("\"a\\b/c\u0000\u001f\td\n")));
+
+        String longKey = "k".repeat(100);
+        DictElement keys = DictElement.builder().put("a\"b", 1).put(longKey, 2).build();
+        String json = writeJson(keys);
+        Assertions.assertTrue(json.contains("\"a\\\"b\":1"));
+        Assertions.assertTrue(json.contains("\"" + longKey + "\":2"));
+        Assertions.assertEquals(json, writeJson(keys));
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        try (Output output = Output.stream(stream)) {
+            Element.of("é\n😀x").writeTo(Destination.json(output));
+        }
+        Assertions.assertEquals("\"é\\n😀x\"", stream.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void whenWritingWithCache_thenReuseSerializedCollections() {
+        SerializationCache cache = SerializationCache.create(1_000);
+        DictElement document = DictElement.builder().put("static", dictElement).put("value", 1).build();
+        String expected = writeJson(document);
+
+        for (int i = 0; i < 2; i++) {
+            StringWriter writer = new StringWriter();
+            document.writeTo(Destination.json(Output.writer(writer), cache));
+            Assertions.assertEquals(expected, writer.toString());
+        }
+        Assertions.assertEquals(writeJson(dictElement).length(), cache.size());
+
+        SerializationCache small = SerializationCache.create(10);
+        document.writeTo(Destination.json(Output.writer(new StringWriter()), small));
+        Assertions.assertEquals(0, small.size());
+    }
+
+    @Test
+    void whenWritingViewsWithCache_thenDoNotCacheThem() {
+        SerializationCache cache = SerializationCache.create(1_000);
+        // Only scalar members, in memory collections inside a view are still cached
+        Element lazy = Element.lazyJson("{\"a\":1,\"b\":\"c\"}".getBytes(StandardCharsets.UTF_8));
+        Element overlay = DictElement.overlay(DictElement.builder().put("b", 1).build(), DictElement.builder().put("c", 2).build());
+
+        for (Element view : List.of(lazy, overlay)) {
+            StringWriter writer = new StringWriter();
+            ListElement.of(view).writeTo(Destination.json(Output.writer(writer), cache));
+            Assertions.assertEquals("[" + writeJson(view) + "]", writer.toString());
+        }
+        Assertions.assertEquals(0, cache.size());
+    }
+
+    @Test
+    void whenWritingCachedValueOutOfPlace_thenThrowBeforeCaching() {
+        SerializationCache cache = SerializationCache.create(1_000);
+        Destination destination = Destination.json(Output.writer(new StringWriter()), cache);
+        destination.openObject();
+
+        Assertions.assertThrows(InvalidJsonException.class, () -> destination.value(dictElement));
+        Assertions.assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,167 @@
+package com.github.thegatesdev.maple;
+
+import io.github.thegatesdev.maple.element.*;
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+final class PersistentCollectionTest {
+
+    private static DictElement persistentDict(int size) {
+        DictElement.Builder builder = DictElement.persistentBuilder();
+        for (int i = 0; i < size; i++) builder.put("key" + i, Element.of(i));
+        return builder.build();
+    }
+
+    @Test
+    void whenEditingPersistentDict_thenOriginalUnchanged() {
+        DictElement original = persistentDict(1000);
+        DictElement edited = original.toBuilder()
+            .put("key5", Element.of("changed"))
+            .remove("key6")
+            .put("added", Element.of(true))
+            .build();
+
+        Assertions.assertEquals(Element.of(5), original.get("key5"));
+        Assertions.assertEquals(Element.of(6), original.get("key6"));
+        Assertions.assertTrue(original.find("added").isEmpty());
+        Assertions.assertEquals(1000, original.count());
+
+        Assertions.assertEquals(Element.of("changed"), edited.get("key5"));
+        Assertions.assertTrue(edited.find("key6").isEmpty());
+        Assertions.assertEquals(Element.of(true), edited.get("added"));
+        Assertions.assertEquals(1000, edited.count());
+    }
+
+    @Test
+    void whenPersistentDictMatchesMap_thenContentEqualsAndSameHash() {
+        Random random = new Random(15);
+        Map<String, Element> expected = new HashMap<>();
+        DictElement.Builder builder = DictElement.persistentBuilder();
+        // Keys built from "Aa" and "BB" share their hash codes
+        String[] parts = {"Aa", "BB", "x", "y"};
+        for (int i = 0; i < 20_000; i++) {
+            String key = parts[random.nextInt(4)] + parts[random.nextInt(4)] + random.nextInt(200);
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                builder.remove(key);
+            } else {
+                Element value = Element.of(random.nextInt(10));
+                expected.put(key, value);
+                builder.put(key, value);
+            }
+            if (i % 1000 == 0) builder = builder.build().toBuilder();
+        }
+        DictElement dict = builder.build();
+        DictElement memory = DictElement.of(expected);
+
+        Assertions.assertEquals(expected, dict.view());
+        Assertions.assertEquals(expected.size(), dict.count());
+        Assertions.assertEquals(memory.hashCode(), dict.hashCode());
+        Assertions.assertTrue(dict.contentEquals(memory));
+        Assertions.assertTrue(memory.contentEquals(dict));
+        Assertions.assertEquals(dict, DictElement.persistentBuilder().putAll(expected).build());
+    }
+
+    @Test
+    void whenAppendingToDerivedList_thenOriginalUnchanged() {
+        ListElement.Builder builder = ListElement.persistentBuilder();
+        for (int i = 0; i < 100_000; i++) builder.add(i);
+        ListElement original = builder.build();
+        ListElement appended = original.toBuilder().add("last").set(40_000, Element.of("set")).build();
+
+        Assertions.assertEquals(100_000, original.count());
+        Assertions.assertEquals(Element.of(40_000), original.get(40_000));
+        Assertions.assertEquals(100_001, appended.count());
+        Assertions.assertEquals(Element.of("last"), appended.get(100_000));
+        Assertions.assertEquals(Element.of("set"), appended.get(40_000));
+        Assertions.assertEquals(Element.of("last"), ListElement.of(original.toArray()).toBuilder().add("last").build().get(100_000));
+    }
+
+    @Test
+    void whenPersistentListMatchesList_thenContentEqualsAndSameHash() {
+        Random random = new Random(16);
+        List<Element> expected = new ArrayList<>();
+        ListElement.Builder builder = ListElement.persistentBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            int action = random.nextInt(10);
+            if (action == 0 && !expected.isEmpty()) {
+                int index = expected.size() - 1 - random.nextInt(Math.min(40, expected.size()));
+                expected.remove(index);
+                builder.remove(index);
+            } else if (action == 1 && !expected.isEmpty()) {
+                int index = random.nextInt(expected.size());
+                Element value = Element.of(random.nextInt(100));
+                expected.set(index, value);
+                builder.set(index, value);
+            } else {
+                Element value = Element.of(random.nextInt(100));
+                expected.add(value);
+                builder.add(value);
+            }
+            if (i % 1000 == 0) builder = builder.build().toBuilder();
+        }
+        ListElement list = builder.build();
+        ListElement memory = ListElement.of(expected);
+
+        Assertions.assertEquals(expected, list.view());
+        Assertions.assertArrayEquals(expected.toArray(), list.toArray());
+        Assertions.assertEquals(memory.hashCode(), list.hashCode());
+        Assertions.assertTrue(list.contentEquals(memory));
+        Assertions.assertTrue(memory.contentEquals(list));
+        Assertions.assertEquals(list, ListElement.persistentBuilder().addAll(expected).build());
+    }
+
+    @Test
+    void whenConcatenatingAndRemovingFromMiddle_thenMatchList() {
+        Random random = new Random(17);
+        List<ListElement> parts = new ArrayList<>();
+        List<List<Element>> expectedParts = new ArrayList<>();
+        for (int size : new int[]{0, 1, 31, 32, 33, 100, 1024, 1057, 5000, 40_000}) {
+            ListElement.Builder builder = ListElement.persistentBuilder();
+            List<Element> expected = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                Element value = Element.of(random.nextInt());
+                builder.add(value);
+                expected.add(value);
+            }
+            parts.add(builder.build());
+            expectedParts.add(expected);
+        }
+
+        List<Element> expected = new ArrayList<>();
+        ListElement.Builder builder = ListElement.persistentBuilder();
+        for (int i = 0; i < 300; i++) {
+            int part = random.nextInt(parts.size());
+            expected.addAll(expectedParts.get(part));
+            builder.addAll(parts.get(part));
+            if (random.nextBoolean()) {
+                Element value = Element.of(i);
+                expected.add(value);
+                builder.add(value);
+            }
+            for (int j = random.nextInt(3); j > 0 && !expected.isEmpty(); j--) {
+                int index = random.nextInt(expected.size());
+                expected.remove(index);
+                builder.remove(index);
+            }
+            if (i % 20 == 0) {
+                ListElement list = builder.build();
+                Assertions.assertEquals(expected.size(), list.count());
+                for (int j = 0; j < 200 && !expected.isEmpty(); j++) {
+                    int index = random.nextInt(expected.size());
+                    Assertions.assertEquals(expected.get(index), list.get(index));
+                }
+                builder = list.toBuilder();
+            }
+        }
+        ListElement list = builder.build();
+
+        Assertions.assertArrayEquals(expected.toArray(), list.toArray());
+        Assertions.assertEquals(expected, list.view());
+        Assertions.assertEquals(ListElement.of(expected).hashCode(), list.hashCode());
+        Assertions.assertEquals(ListElement.of(expected), list);
+        Assertions.assertEquals(ListElement.persistentBuilder().addAll(expected).build(), list);
+        for (ListElement part : parts) Assertions.assertEquals(expectedParts.get(parts.indexOf(part)), part.view());
+    }
+}
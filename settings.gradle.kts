@@ -1,3 +1,4 @@
 rootProject.name = "maple"
 
-include("maple")
\ No newline at end of file
+include("maple")
+include("maple-jmh")
\ No newline at end of file